@@ -0,0 +1,22 @@
+package school.sorokin.reservation.admission;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "reservation.admission", name = "enabled", havingValue = "true")
+public class AdmissionConfiguration implements WebMvcConfigurer {
+    private final AdmissionController admissionController;
+
+    public AdmissionConfiguration(AdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(admissionController))
+                .addPathPatterns("/reservation", "/reservation/**");
+    }
+}
@@ -0,0 +1,168 @@
+package school.sorokin.reservation.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process admission control in front of the reservation endpoints:
+ * <ul>
+ *     <li>a token bucket per client and request class;</li>
+ *     <li>at most {@code max-concurrent} requests in flight, of which reads may take only
+ *     {@code read-max-concurrent}, so the rest is always left to writes;</li>
+ *     <li>at most {@code queue-size} requests waiting for a slot, each for its class's
+ *     queue timeout;</li>
+ *     <li>reads are shed at once while threads are already waiting for a primary pool connection.</li>
+ * </ul>
+ * Rejections are {@link AdmissionRejectedException}s, answered with 429.
+ */
+@Component
+public class AdmissionController {
+    private static final Duration OVERLOAD_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final Semaphore permits;
+    private final Semaphore readPermits;
+    private final int queueSize;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Duration readQueueTimeout;
+    private final Duration writeQueueTimeout;
+    private final double readRate;
+    private final int readBurst;
+    private final double writeRate;
+    private final int writeBurst;
+    private final Cache<String, TokenBucket> buckets;
+    private final ObjectProvider<DataSource> dataSource;
+    private final MeterRegistry registry;
+    private volatile Optional<HikariDataSource> pool;
+
+    public AdmissionController(
+            @Value("${reservation.admission.max-concurrent:20}") int maxConcurrent,
+            @Value("${reservation.admission.read-max-concurrent:14}") int readMaxConcurrent,
+            @Value("${reservation.admission.queue-size:200}") int queueSize,
+            @Value("${reservation.admission.read.queue-timeout:100ms}") Duration readQueueTimeout,
+            @Value("${reservation.admission.write.queue-timeout:2s}") Duration writeQueueTimeout,
+            @Value("${reservation.admission.read.rate-per-second:50}") double readRate,
+            @Value("${reservation.admission.read.burst:100}") int readBurst,
+            @Value("${reservation.admission.write.rate-per-second:10}") double writeRate,
+            @Value("${reservation.admission.write.burst:20}") int writeBurst,
+            @Value("${reservation.admission.max-clients:100000}") long maxClients,
+            ObjectProvider<DataSource> dataSource,
+            MeterRegistry registry
+    ) {
+        if (readMaxConcurrent > maxConcurrent) {
+            throw new IllegalArgumentException("read-max-concurrent should not exceed max-concurrent");
+        }
+        this.permits = new Semaphore(maxConcurrent);
+        this.readPermits = new Semaphore(readMaxConcurrent);
+        this.queueSize = queueSize;
+        this.readQueueTimeout = readQueueTimeout;
+        this.writeQueueTimeout = writeQueueTimeout;
+        this.readRate = readRate;
+        this.readBurst = readBurst;
+        this.writeRate = writeRate;
+        this.writeBurst = writeBurst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        this.dataSource = dataSource;
+        this.registry = registry;
+        Gauge.builder("reservation.admission.in.flight", permits, p -> maxConcurrent - p.availablePermits())
+                .description("Reservation requests holding an admission slot")
+                .register(registry);
+        Gauge.builder("reservation.admission.waiting", waiting, AtomicInteger::get)
+                .description("Reservation requests waiting for an admission slot")
+                .register(registry);
+    }
+
+    /**
+     * Admits the request or throws {@link AdmissionRejectedException}. The returned permit
+     * must be released exactly once when the request is done.
+     */
+    public Runnable admit(RequestClass requestClass, String clientId) {
+        var bucket = buckets.get(requestClass + ":" + clientId, ignored -> requestClass == RequestClass.WRITE
+                ? new TokenBucket(writeRate, writeBurst, System.nanoTime())
+                : new TokenBucket(readRate, readBurst, System.nanoTime()));
+        long waitNanos = bucket.tryConsume(System.nanoTime());
+        if (waitNanos > 0) {
+            throw reject(requestClass, "rate_limited", "rate limit exceeded for client " + clientId,
+                    Duration.ofNanos(waitNanos));
+        }
+        if (requestClass == RequestClass.READ && isPoolSaturated()) {
+            throw reject(requestClass, "pool_saturated", "database connection pool is saturated", OVERLOAD_RETRY_AFTER);
+        }
+
+        if (waiting.incrementAndGet() > queueSize) {
+            waiting.decrementAndGet();
+            throw reject(requestClass, "queue_full", "too many requests waiting", OVERLOAD_RETRY_AFTER);
+        }
+        try {
+            return requestClass == RequestClass.WRITE ? acquireWrite() : acquireRead();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(requestClass, "interrupted", "interrupted while waiting for admission", OVERLOAD_RETRY_AFTER);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private Runnable acquireWrite() throws InterruptedException {
+        if (!permits.tryAcquire(writeQueueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw reject(RequestClass.WRITE, "timeout", "no admission slot within " + writeQueueTimeout, OVERLOAD_RETRY_AFTER);
+        }
+        return permits::release;
+    }
+
+    private Runnable acquireRead() throws InterruptedException {
+        long deadline = System.nanoTime() + readQueueTimeout.toNanos();
+        if (!readPermits.tryAcquire(readQueueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw reject(RequestClass.READ, "timeout", "no admission slot within " + readQueueTimeout, OVERLOAD_RETRY_AFTER);
+        }
+        if (!permits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            readPermits.release();
+            throw reject(RequestClass.READ, "timeout", "no admission slot within " + readQueueTimeout, OVERLOAD_RETRY_AFTER);
+        }
+        return () -> {
+            permits.release();
+            readPermits.release();
+        };
+    }
+
+    private boolean isPoolSaturated() {
+        var hikari = pool;
+        if (hikari == null) {
+            try {
+                hikari = Optional.of(dataSource.getObject().unwrap(HikariDataSource.class));
+            } catch (SQLException | RuntimeException e) {
+                hikari = Optional.empty();
+            }
+            pool = hikari;
+        }
+        var poolBean = hikari.map(HikariDataSource::getHikariPoolMXBean).orElse(null);
+        return poolBean != null && poolBean.getThreadsAwaitingConnection() > 0;
+    }
+
+    private AdmissionRejectedException reject(RequestClass requestClass, String reason, String message, Duration retryAfter) {
+        Counter.builder("reservation.admission.rejections")
+                .description("Reservation requests shed by admission control")
+                .tag("class", requestClass.name().toLowerCase())
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+        return new AdmissionRejectedException(message, retryAfter);
+    }
+}
@@ -0,0 +1,122 @@
+package school.sorokin.reservation.admission;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs {@link AdmissionController} before the handler, so rejections go through
+ * {@code GlobalExceptionHandler}. The slot is held while the request thread works and released
+ * when it completes. A request that goes async only to wait for a result releases it on the
+ * hand-over; a {@link StreamingResponseBody} keeps it until the async request completes,
+ * because it reads the database for as long as it writes.
+ */
+class AdmissionInterceptor implements AsyncHandlerInterceptor {
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final AdmissionController admissionController;
+
+    AdmissionInterceptor(AdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) return true;
+        var permit = admissionController.admit(classify(request), clientId(request));
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!streamsResponse(handler)) {
+            release(request);
+            return;
+        }
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Runnable permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            request.getAsyncContext().addListener(new ReleaseOnComplete(permit));
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    static RequestClass classify(HttpServletRequest request) {
+        if (HttpMethod.GET.matches(request.getMethod())) return RequestClass.READ;
+        var path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/reservation/availability/")) return RequestClass.READ;
+        return RequestClass.WRITE;
+    }
+
+    /**
+     * Request parameters and headers are chosen by the caller, so only the authenticated principal
+     * or the client address counts. Behind a load balancer the address is the one resolved from
+     * {@code X-Forwarded-For} by {@code server.forward-headers-strategy}, which trusts only the
+     * proxies in {@code server.tomcat.remoteip.internal-proxies}.
+     */
+    static String clientId(HttpServletRequest request) {
+        var principal = request.getUserPrincipal();
+        if (principal != null) return "user:" + principal.getName();
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    static boolean streamsResponse(Object handler) {
+        if (!(handler instanceof HandlerMethod method)) return false;
+        var type = ResolvableType.forMethodParameter(method.getReturnType());
+        if (ResponseEntity.class.isAssignableFrom(type.toClass())) {
+            type = type.getGeneric();
+        }
+        return StreamingResponseBody.class.isAssignableFrom(type.toClass());
+    }
+
+    private static void release(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Runnable permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.run();
+        }
+    }
+
+    /**
+     * The container calls {@code onComplete} once for every async request, including ones that
+     * timed out or failed, so the slot can not leak.
+     */
+    private static class ReleaseOnComplete implements AsyncListener {
+        private final AtomicReference<Runnable> permit;
+
+        ReleaseOnComplete(Runnable permit) {
+            this.permit = new AtomicReference<>(permit);
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            var held = permit.getAndSet(null);
+            if (held != null) held.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package school.sorokin.reservation.admission;
+
+import java.time.Duration;
+
+/**
+ * The request was shed by {@link AdmissionController}; the client may retry after {@link #retryAfter()}.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+}
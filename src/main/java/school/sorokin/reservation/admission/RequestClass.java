@@ -0,0 +1,10 @@
+package school.sorokin.reservation.admission;
+
+/**
+ * Admission priority: writes (create, update, cancel, approve) may use the whole concurrency
+ * limit, reads (lookups, searches, availability checks) only their share of it.
+ */
+public enum RequestClass {
+    READ,
+    WRITE
+}
@@ -0,0 +1,33 @@
+package school.sorokin.reservation.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out replica connections while {@link ReplicaLagGuard} allows it, primary ones otherwise.
+ */
+class LagGuardedDataSource extends DelegatingDataSource {
+    private final DataSource primary;
+    private final ReplicaLagGuard lagGuard;
+
+    LagGuardedDataSource(DataSource replica, DataSource primary, ReplicaLagGuard lagGuard) {
+        super(replica);
+        this.primary = primary;
+        this.lagGuard = lagGuard;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return lagGuard.isReplicaUsable() ? super.getConnection() : primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return lagGuard.isReplicaUsable()
+                ? super.getConnection(username, password)
+                : primary.getConnection(username, password);
+    }
+}
@@ -0,0 +1,74 @@
+package school.sorokin.reservation.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Periodically measures how far the replica is behind the primary. The replica is used only
+ * while the last check succeeded and the lag was within {@code maxLag}; a caught-up standby
+ * reports zero lag even when the primary has been idle.
+ */
+public class ReplicaLagGuard {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagGuard.class);
+    private static final String LAG_QUERY = """
+            select case
+                when not pg_is_in_recovery() then 0
+                when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0)
+            end
+            """;
+
+    private final DataSource replica;
+    private final Duration maxLag;
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagGuard(DataSource replica, Duration maxLag) {
+        this.replica = replica;
+        this.maxLag = maxLag;
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("reservation.replica.lag", this, guard -> guard.lagSeconds)
+                .description("Replica replay lag measured by the lag guard, NaN when unreachable")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            lagSeconds = measureLagSeconds();
+            usable = lagSeconds <= maxLag.toMillis() / 1000.0;
+        } catch (SQLException | RuntimeException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable) log.warn("replica check failed: {}", e.getMessage());
+        }
+        if (wasUsable != usable) {
+            log.info("replica {} (lag {} s, max {} s)", usable ? "enabled" : "disabled",
+                    lagSeconds, maxLag.toMillis() / 1000.0);
+        }
+    }
+
+    double measureLagSeconds() throws SQLException {
+        try (var connection = replica.getConnection();
+             var statement = connection.createStatement();
+             var resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            return resultSet.getDouble(1);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package school.sorokin.reservation.reservations;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Either {@code ids}, or {@code roomId} with a date range: every reservation of the room
+ * overlapping {@code [startDate, endDate)} is cancelled.
+ */
+public record BulkCancelRequest(
+        List<Long> ids,
+        Long roomId,
+        LocalDate startDate,
+        LocalDate endDate
+) {
+}
@@ -0,0 +1,7 @@
+package school.sorokin.reservation.reservations;
+
+public record BulkCancelResult(
+        Long reservationId,
+        CancelOutcome outcome
+) {
+}
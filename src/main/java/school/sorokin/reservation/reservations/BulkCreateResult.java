@@ -0,0 +1,8 @@
+package school.sorokin.reservation.reservations;
+
+public record BulkCreateResult(
+        int index,
+        Reservation reservation,
+        String error
+) {
+}
@@ -0,0 +1,9 @@
+package school.sorokin.reservation.reservations;
+
+public enum CancelOutcome {
+    CANCELED,
+    APPROVED,
+    ALREADY_CANCELED,
+    NOT_FOUND,
+    STATUS_CHANGED
+}
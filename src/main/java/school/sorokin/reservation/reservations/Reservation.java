@@ -19,7 +19,8 @@ public record Reservation (
         @FutureOrPresent
         @NotNull
         LocalDate endDate,
-        ReservationStatus status
+        ReservationStatus status,
+        Long version
 
 ){
 
@@ -0,0 +1,219 @@
+package school.sorokin.reservation.reservations;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+import school.sorokin.reservation.reservations.availability.ReservationInterval;
+import school.sorokin.reservation.reservations.changes.ReservationChangeNotifier;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Service
+public class ReservationBulkService {
+    private static final Logger log = LoggerFactory.getLogger(ReservationBulkService.class);
+
+    // targets is read from the statement snapshot, so its status is the one before the update
+    private static final String CANCEL_TARGETS = """
+            canceled as (
+                update reservations r
+                set status = 'CANCELED', version = r.version + 1
+                from targets t
+                where r.id = t.id
+                and r.status = 'PENDING'
+                returning r.id, r.room_id, r.start_date, r.end_date
+            )
+            select t.id, t.status, c.room_id, c.start_date, c.end_date
+            from targets t
+            left join canceled c on c.id = t.id
+            order by t.id
+            """;
+
+    private final EntityManager entityManager;
+    private final ReservationMapper mapper;
+    private final Validator validator;
+    private final JdbcOperations jdbcOperations;
+    private final ReservationCache cache;
+    private final ReservationAvailabilityService availabilityService;
+    private final ReservationChangeNotifier changeNotifier;
+    private final ReservationMetrics metrics;
+    private final int batchSize;
+    private final int maxSize;
+
+    public ReservationBulkService(
+            EntityManager entityManager,
+            ReservationMapper mapper,
+            Validator validator,
+            JdbcOperations jdbcOperations,
+            ReservationCache cache,
+            ReservationAvailabilityService availabilityService,
+            ReservationChangeNotifier changeNotifier,
+            ReservationMetrics metrics,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+            @Value("${reservation.bulk.max-size:50000}") int maxSize
+    ) {
+        this.entityManager = entityManager;
+        this.mapper = mapper;
+        this.validator = validator;
+        this.jdbcOperations = jdbcOperations;
+        this.cache = cache;
+        this.availabilityService = availabilityService;
+        this.changeNotifier = changeNotifier;
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        this.maxSize = maxSize;
+    }
+
+    @Transactional
+    public List<BulkCreateResult> createReservations(List<Reservation> reservationsToCreate) {
+        if (reservationsToCreate.size() > maxSize) {
+            throw new IllegalArgumentException("bulk size should be at most " + maxSize);
+        }
+        var errors = new String[reservationsToCreate.size()];
+        for (int i = 0; i < reservationsToCreate.size(); i++) {
+            errors[i] = validate(reservationsToCreate.get(i));
+        }
+
+        var results = new ArrayList<BulkCreateResult>(reservationsToCreate.size());
+        int created = 0;
+        for (int i = 0; i < reservationsToCreate.size(); i++) {
+            if (errors[i] != null) {
+                results.add(new BulkCreateResult(i, null, errors[i]));
+                continue;
+            }
+            var entity = mapper.toEntity(reservationsToCreate.get(i));
+            entity.setStatus(ReservationStatus.PENDING);
+            entityManager.persist(entity);
+            results.add(new BulkCreateResult(i, mapper.toDomain(entity), null));
+            if (++created % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        log.info("bulk created {} of {} reservations", created, reservationsToCreate.size());
+        return results;
+    }
+
+    /**
+     * Cancels the requested reservations with one {@code update ... returning} statement and reports
+     * an outcome per reservation. Only pending reservations are cancelled, as in
+     * {@link ReservationService#cancelReservation}; a row that stopped being pending while the
+     * statement ran is reported as {@link CancelOutcome#STATUS_CHANGED}.
+     */
+    @Transactional
+    public List<BulkCancelResult> cancelReservations(BulkCancelRequest request) {
+        var results = new ArrayList<BulkCancelResult>();
+        var canceled = new ArrayList<ReservationInterval>();
+        RowCallbackHandler collect = rs -> {
+            long id = rs.getLong("id");
+            CancelOutcome outcome;
+            if (rs.getObject("room_id") != null) {
+                outcome = CancelOutcome.CANCELED;
+                canceled.add(new ReservationInterval(
+                        id,
+                        rs.getLong("room_id"),
+                        rs.getObject("start_date", LocalDate.class),
+                        rs.getObject("end_date", LocalDate.class)));
+            } else {
+                outcome = toOutcome(rs.getString("status"));
+            }
+            metrics.cancellation(outcome);
+            results.add(new BulkCancelResult(id, outcome));
+        };
+
+        if (request.ids() != null) {
+            jdbcOperations.query("""
+                            with targets as (
+                                select q.id, r.status
+                                from unnest(?::bigint[]) as q(id)
+                                left join reservations r on r.id = q.id
+                            ),
+                            """ + CANCEL_TARGETS,
+                    collect, (Object) requestedIds(request));
+        } else {
+            checkRange(request);
+            jdbcOperations.query("""
+                            with targets as (
+                                select id, status from reservations
+                                where room_id = ?
+                                and start_date < ?
+                                and ? < end_date
+                            ),
+                            """ + CANCEL_TARGETS,
+                    collect, request.roomId(), request.endDate(), request.startDate());
+        }
+
+        changeNotifier.publishAll(ReservationStatus.CANCELED, canceled);
+        cache.invalidateAll(canceled.stream().map(ReservationInterval::id).toList());
+        canceled.forEach(interval -> availabilityService.markReleased(interval.id(), interval.roomId()));
+        log.info("bulk canceled {} of {} reservations", canceled.size(), results.size());
+        return results;
+    }
+
+    private Long[] requestedIds(BulkCancelRequest request) {
+        if (request.roomId() != null || request.startDate() != null || request.endDate() != null) {
+            throw new IllegalArgumentException("ids can not be combined with roomId and dates");
+        }
+        if (request.ids().isEmpty()) {
+            throw new IllegalArgumentException("ids should not be empty");
+        }
+        if (request.ids().stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("ids should not contain null");
+        }
+        var ids = new LinkedHashSet<>(request.ids());
+        if (ids.size() > maxSize) {
+            throw new IllegalArgumentException("bulk size should be at most " + maxSize);
+        }
+        return ids.toArray(Long[]::new);
+    }
+
+    private static void checkRange(BulkCancelRequest request) {
+        if (request.roomId() == null || request.startDate() == null || request.endDate() == null) {
+            throw new IllegalArgumentException("ids or roomId with startDate and endDate should be given");
+        }
+        if (!request.endDate().isAfter(request.startDate())) {
+            throw new IllegalArgumentException("start date should be before end date");
+        }
+    }
+
+    private static CancelOutcome toOutcome(String status) {
+        if (status == null) return CancelOutcome.NOT_FOUND;
+        return switch (ReservationStatus.valueOf(status)) {
+            case APPROVED -> CancelOutcome.APPROVED;
+            case CANCELED -> CancelOutcome.ALREADY_CANCELED;
+            case PENDING -> CancelOutcome.STATUS_CHANGED;
+        };
+    }
+
+    private String validate(Reservation reservation) {
+        if (reservation == null) {
+            return "reservation should not be null";
+        }
+        var violations = validator.validate(reservation);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        try {
+            ReservationService.checkNewReservation(reservation);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+}
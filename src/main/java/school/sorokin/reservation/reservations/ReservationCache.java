@@ -0,0 +1,112 @@
+package school.sorokin.reservation.reservations;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of reservations by id. A miss puts an incomplete future into the
+ * cache and runs the load on the caller's thread, outside Caffeine's map lock, so a blocking
+ * database read never pins a virtual thread's carrier; concurrent readers of the key wait on
+ * that future. {@link #invalidate} drops an in-flight future, so a value read before a write
+ * commits can never stay cached after the write's invalidation.
+ */
+@Component
+public class ReservationCache implements MeterBinder {
+    private final AsyncCache<Long, Reservation> cache;
+    private final boolean enabled;
+
+    public ReservationCache(
+            @Value("${reservation.cache.enabled:true}") boolean enabled,
+            @Value("${reservation.cache.max-size:10000}") long maxSize,
+            @Value("${reservation.cache.ttl:5m}") Duration ttl
+    ) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public Reservation get(Long id, Function<Long, Reservation> loader) {
+        if (!enabled) return loader.apply(id);
+        var pending = new CompletableFuture<Reservation>();
+        var future = cache.get(id, (key, executor) -> pending);
+        if (future != pending) return await(future);
+        try {
+            var reservation = loader.apply(id);
+            pending.complete(reservation);
+            return reservation;
+        } catch (RuntimeException | Error e) {
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Reservation await(CompletableFuture<Reservation> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    public void invalidate(Long id) {
+        cache.synchronous().invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.synchronous().invalidate(id);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        cache.synchronous().invalidateAll(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.synchronous().invalidateAll(ids);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "reservations");
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    Cache<Long, Reservation> nativeCache() {
+        return cache.synchronous();
+    }
+}
@@ -1,12 +1,18 @@
 package school.sorokin.reservation.reservations;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import school.sorokin.reservation.reservations.idempotency.IdempotencyStore;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -14,18 +20,25 @@ import java.util.List;
 public class ReservationController {
 
     private static final Logger log = LoggerFactory.getLogger(ReservationController.class);
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private  final ReservationService reservationService;
+    private final ReservationBulkService bulkService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyStore idempotencyStore;
 
 
-    public ReservationController(ReservationService reservationService) {
+    public ReservationController(ReservationService reservationService, ReservationBulkService bulkService, ObjectMapper objectMapper, IdempotencyStore idempotencyStore) {
         this.reservationService = reservationService;
+        this.bulkService = bulkService;
+        this.objectMapper = objectMapper;
+        this.idempotencyStore = idempotencyStore;
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Reservation> getReservationById(
             @PathVariable("id") Long  id
     ) {
-        log.info("called getReservationById");
+        log.debug("called getReservationById");
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(reservationService.getReservationById(id));
@@ -35,26 +48,79 @@ public class ReservationController {
             @RequestParam(name = "roomId", required = false) Long roomId,
             @RequestParam(name = "userId", required = false) Long userId,
             @RequestParam(name = "pageSize", required = false) Integer pageSize,
-            @RequestParam(name = "pageNumber", required = false) Integer pageNumber
+            @RequestParam(name = "pageNumber", required = false) Integer pageNumber,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
-        log.info("called getAllReservations");
+        log.debug("called getAllReservations");
         var filter = new ReservationSearchFilter(
                 roomId,
                 userId,
                 pageSize,
-                pageNumber
+                pageNumber,
+                cursor
         );
-        return ResponseEntity.ok(reservationService.searchAllByFilter(filter));
+        if (cursor == null) {
+            return ResponseEntity.ok(reservationService.searchAllByFilter(filter));
+        }
+        var page = reservationService.searchAllByCursor(filter);
+        var response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.reservations());
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportReservations(
+            @RequestParam(name = "roomId", required = false) Long roomId,
+            @RequestParam(name = "userId", required = false) Long userId
+    ) {
+        log.debug("called exportReservations roomId={}, userId={}", roomId, userId);
+        var filter = new ReservationSearchFilter(roomId, userId, null, null, null);
+        var writer = objectMapper.writerFor(Reservation.class);
+        StreamingResponseBody body = outputStream ->
+                reservationService.exportByFilter(filter, reservation -> {
+                    try {
+                        outputStream.write(writer.writeValueAsBytes(reservation));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PostMapping
     public ResponseEntity<Reservation> createReservation(
-            @RequestBody @Valid Reservation reservationToCreate
+            @RequestBody @Valid Reservation reservationToCreate,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey
     ){
-        log.info("called createReservation");
+        log.debug("called createReservation");
+        var created = idempotencyKey == null
+                ? reservationService.createReservation(reservationToCreate)
+                : idempotencyStore.execute("create", idempotencyKey, reservationToCreate.toString(),
+                        () -> reservationService.createReservation(reservationToCreate));
         return ResponseEntity
                 .status(HttpStatus.CREATED)
-                .body(reservationService.createReservation(reservationToCreate));
+                .body(created);
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkCreateResult>> createReservations(
+            @RequestBody List<Reservation> reservationsToCreate
+    ){
+        log.debug("called createReservations size={}", reservationsToCreate.size());
+        return ResponseEntity.ok(bulkService.createReservations(reservationsToCreate));
+    }
+
+    @PostMapping("/bulk/cancel")
+    public ResponseEntity<List<BulkCancelResult>> cancelReservations(
+            @RequestBody BulkCancelRequest request
+    ){
+        log.debug("called cancelReservations request={}", request);
+        return ResponseEntity.ok(bulkService.cancelReservations(request));
     }
 
     @PutMapping("/{id}")
@@ -62,7 +128,7 @@ public class ReservationController {
             @PathVariable("id") Long id,
             @RequestBody @Valid Reservation reservationToUpdate
     ){
-        log.info("called updateReservation id={}, reservationToUpdate={}",
+        log.debug("called updateReservation id={}, reservationToUpdate={}",
                 id, reservationToUpdate);
         var updated = reservationService.updateReservation(id, reservationToUpdate);
         return ResponseEntity
@@ -73,7 +139,7 @@ public class ReservationController {
     public ResponseEntity<Void> deleteReservation(
             @PathVariable("id") Long id
     ){
-        log.info("called deleteReservation id={}", id);
+        log.debug("called deleteReservation id={}", id);
         reservationService.cancelReservation(id);
         return ResponseEntity.ok().build();
 
@@ -82,10 +148,14 @@ public class ReservationController {
 
     @PostMapping("/{id}/approve")
     public ResponseEntity<Reservation> approveReservation(
-            @PathVariable("id") Long id
+            @PathVariable("id") Long id,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey
     ){
-        log.info("called approveReservation id={}", id);
-        var reservation = reservationService.approveReservation(id);
+        log.debug("called approveReservation id={}", id);
+        var reservation = idempotencyKey == null
+                ? reservationService.approveReservation(id)
+                : idempotencyStore.execute("approve", idempotencyKey, String.valueOf(id),
+                        () -> reservationService.approveReservation(id));
         return ResponseEntity.ok(reservation);
     }
 }
@@ -8,7 +8,8 @@ import java.time.LocalDate;
 @Entity
 public class ReservationEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_seq")
+    @SequenceGenerator(name = "reservations_seq", sequenceName = "reservations_seq", allocationSize = 50)
     @Column(name ="id")
     private Long id;
     @Column(name ="client_id")
@@ -22,6 +23,9 @@ public class ReservationEntity {
     @Enumerated(EnumType.STRING)
     @Column(name ="status")
     private ReservationStatus status;
+    @Version
+    @Column(name ="version")
+    private Long version;
 
     public ReservationEntity() {
     }
@@ -83,4 +87,12 @@ public class ReservationEntity {
     public void setStatus(ReservationStatus status) {
         this.status = status;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -11,7 +11,8 @@ public class ReservationMapper {
                 reservation.getRoomId(),
                 reservation.getStartDate(),
                 reservation.getEndDate(),
-                reservation.getStatus());
+                reservation.getStatus(),
+                reservation.getVersion());
     }
 
     public ReservationEntity toEntity(Reservation reservation){
@@ -0,0 +1,80 @@
+package school.sorokin.reservation.reservations;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Business counters for the reservation hot paths. Latency of HTTP endpoints, repository
+ * methods and the connection pool is recorded by Spring Boot's own instrumentation.
+ * Every counter is registered up front, so recording is a plain increment.
+ */
+@Component
+public class ReservationMetrics {
+    public static final String SOURCE_INDEX = "index";
+    public static final String SOURCE_DATABASE = "database";
+
+    public enum Approval {
+        APPROVED,
+        CONFLICT,
+        INVALID_STATUS,
+        NOT_FOUND,
+        RETRY,
+        STATUS_CHANGED
+    }
+
+    private final Counter indexAvailable;
+    private final Counter indexReserved;
+    private final Counter databaseAvailable;
+    private final Counter databaseReserved;
+    private final Map<Approval, Counter> approvals = new EnumMap<>(Approval.class);
+    private final Map<CancelOutcome, Counter> cancellations = new EnumMap<>(CancelOutcome.class);
+
+    public ReservationMetrics(MeterRegistry registry) {
+        this.indexAvailable = availabilityCounter(registry, SOURCE_INDEX, "available");
+        this.indexReserved = availabilityCounter(registry, SOURCE_INDEX, "reserved");
+        this.databaseAvailable = availabilityCounter(registry, SOURCE_DATABASE, "available");
+        this.databaseReserved = availabilityCounter(registry, SOURCE_DATABASE, "reserved");
+        for (var outcome : Approval.values()) {
+            approvals.put(outcome, Counter.builder("reservation.approvals")
+                    .description("Approval attempts by outcome")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry));
+        }
+        for (var outcome : CancelOutcome.values()) {
+            cancellations.put(outcome, Counter.builder("reservation.cancellations")
+                    .description("Cancellation attempts by outcome")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry));
+        }
+    }
+
+    public void availabilityChecked(String source, boolean available) {
+        if (SOURCE_INDEX.equals(source)) {
+            (available ? indexAvailable : indexReserved).increment();
+        } else if (SOURCE_DATABASE.equals(source)) {
+            (available ? databaseAvailable : databaseReserved).increment();
+        } else {
+            throw new IllegalArgumentException("unknown availability source " + source);
+        }
+    }
+
+    public void approval(Approval outcome) {
+        approvals.get(outcome).increment();
+    }
+
+    public void cancellation(CancelOutcome outcome) {
+        cancellations.get(outcome).increment();
+    }
+
+    private static Counter availabilityCounter(MeterRegistry registry, String source, String result) {
+        return Counter.builder("reservation.availability.checks")
+                .description("Availability checks by answer source and result")
+                .tag("source", source)
+                .tag("result", result)
+                .register(registry);
+    }
+}
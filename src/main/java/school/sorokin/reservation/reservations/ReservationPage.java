@@ -0,0 +1,9 @@
+package school.sorokin.reservation.reservations;
+
+import java.util.List;
+
+public record ReservationPage(
+        List<Reservation> reservations,
+        String nextCursor
+) {
+}
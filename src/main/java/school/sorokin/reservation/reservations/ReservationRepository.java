@@ -1,30 +1,107 @@
 package school.sorokin.reservation.reservations;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import school.sorokin.reservation.reservations.availability.ReservationInterval;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ReservationRepository extends JpaRepository<ReservationEntity,Long> {
+public interface ReservationRepository extends JpaRepository<ReservationEntity,Long>, ReservationSearchRepository {
     @Modifying
     @Query("""
             update ReservationEntity r
-            set r.status = :status
+            set r.status = school.sorokin.reservation.reservations.ReservationStatus.CANCELED,
+                r.version = r.version + 1
             where r.id = :id
+            and r.version = :version
+            and r.status = school.sorokin.reservation.reservations.ReservationStatus.PENDING
             """)
-    void setStatus(
+    int cancelPending(
             @Param("id") Long id,
-            @Param("status") ReservationStatus reservationStatus);
+            @Param("version") Long version);
 
+    @Modifying
+    @Query("""
+            update ReservationEntity r
+            set r.userId = :userId,
+                r.roomId = :roomId,
+                r.startDate = :startDate,
+                r.endDate = :endDate,
+                r.version = r.version + 1
+            where r.id = :id
+            and r.version = :version
+            and r.status = school.sorokin.reservation.reservations.ReservationStatus.PENDING
+            """)
+    int updatePending(
+            @Param("id") Long id,
+            @Param("version") Long version,
+            @Param("userId") Long userId,
+            @Param("roomId") Long roomId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Approves the reservations that are still pending at the version they were read with and
+     * returns the ids that were approved; a row edited or cancelled in the meantime is left alone.
+     */
+    @Query(nativeQuery = true, value = """
+            with approved as (
+                update reservations r
+                set status = 'APPROVED', version = r.version + 1
+                from unnest(cast(:ids as bigint[]), cast(:versions as bigint[])) as q(id, version)
+                where r.id = q.id
+                and r.version = q.version
+                and r.status = 'PENDING'
+                returning r.id
+            )
+            select id from approved
+            """)
+    List<Long> approvePending(
+            @Param("ids") Long[] ids,
+            @Param("versions") Long[] versions);
+
+    /**
+     * Not read-only on purpose: with replica routing it runs on the primary, so a reservation
+     * created or moved a moment ago is locked under the room it is in now.
+     */
+    @Transactional
+    @Query("""
+            select distinct r.roomId from ReservationEntity r
+            where r.id in :ids
+            """)
+    List<Long> findRoomIdsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Not read-only on purpose: with replica routing it runs on the primary, so a value loaded
+     * into {@link ReservationCache} right after a write is never a lagging replica's copy.
+     */
+    @Transactional
+    @Query("""
+            select new school.sorokin.reservation.reservations.Reservation(
+                r.id, r.userId, r.roomId, r.startDate, r.endDate, r.status, r.version)
+            from ReservationEntity r
+            where r.id = :id
+            """)
+    Optional<Reservation> findReservationById(@Param("id") Long id);
+
+    @Query("""
+            select r.roomId from ReservationEntity r
+            where r.id = :id
+            """)
+    Optional<Long> findRoomIdById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
     @Query("""
             select r.id from ReservationEntity r
             where r.roomId = :roomId
-            and :startDate < r.startDate
-            and r.endDate < :endDate
+            and r.startDate < :endDate
+            and :startDate < r.endDate
             and r.status = :status
             """)
     List<Long> findConflictReservationIds(
@@ -35,13 +112,29 @@ public interface ReservationRepository extends JpaRepository<ReservationEntity,L
     );
 
     @Query("""
-            select r from ReservationEntity r
-            where (:roomId is null or r.roomId = :roomId)
-            and (:userId is null or r.userId = :userId)
+            select new school.sorokin.reservation.reservations.availability.ReservationInterval(
+                r.id, r.roomId, r.startDate, r.endDate)
+            from ReservationEntity r
+            where r.status = :status
             """)
-    List<ReservationEntity> searchAllByFilter(
-            @Param("roomId") Long roomId,
-            @Param("userId") Long userId,
-            Pageable pageable
+    List<ReservationInterval> findIntervalsByStatus(
+            @Param("status") ReservationStatus status
+    );
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new school.sorokin.reservation.reservations.availability.ReservationInterval(
+                r.id, r.roomId, r.startDate, r.endDate)
+            from ReservationEntity r
+            where r.roomId in :roomIds
+            and r.startDate < :endDate
+            and :startDate < r.endDate
+            and r.status = :status
+            """)
+    List<ReservationInterval> findIntervalsInRange(
+            @Param("roomIds") Collection<Long> roomIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("status") ReservationStatus status
     );
 }
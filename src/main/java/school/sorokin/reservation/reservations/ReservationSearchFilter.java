@@ -1,11 +1,28 @@
 package school.sorokin.reservation.reservations;
 
-import org.springframework.web.bind.annotation.RequestParam;
-
 public record ReservationSearchFilter(
         Long roomId,
         Long userId,
         Integer pageSize,
-        Integer pageNumber
+        Integer pageNumber,
+        String cursor
 ) {
+    public static final int DEFAULT_PAGE_SIZE = 10;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public int checkedPageSize() {
+        if (pageSize == null) return DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("pageSize should be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return pageSize;
+    }
+
+    public int checkedPageNumber() {
+        if (pageNumber == null) return 0;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("pageNumber should not be negative");
+        }
+        return pageNumber;
+    }
 }
@@ -0,0 +1,19 @@
+package school.sorokin.reservation.reservations;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Listings filtered by room and/or client. Only the filters that are set become predicates,
+ * so every combination is its own statement and keeps its index under a generic plan.
+ */
+public interface ReservationSearchRepository {
+
+    List<Reservation> searchAllByFilter(Long roomId, Long userId, Pageable pageable);
+
+    List<Reservation> searchAllByFilterAfter(Long roomId, Long userId, Long lastId, Pageable pageable);
+
+    Stream<Reservation> streamAllByFilter(Long roomId, Long userId);
+}
@@ -0,0 +1,70 @@
+package school.sorokin.reservation.reservations;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+class ReservationSearchRepositoryImpl implements ReservationSearchRepository {
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    ReservationSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Reservation> searchAllByFilter(Long roomId, Long userId, Pageable pageable) {
+        return query(roomId, userId, null)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public List<Reservation> searchAllByFilterAfter(Long roomId, Long userId, Long lastId, Pageable pageable) {
+        return query(roomId, userId, lastId)
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public Stream<Reservation> streamAllByFilter(Long roomId, Long userId) {
+        return query(roomId, userId, null)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private TypedQuery<Reservation> query(Long roomId, Long userId, Long lastId) {
+        var conditions = new ArrayList<String>();
+        var parameters = new HashMap<String, Object>();
+        if (roomId != null) {
+            conditions.add("r.roomId = :roomId");
+            parameters.put("roomId", roomId);
+        }
+        if (userId != null) {
+            conditions.add("r.userId = :userId");
+            parameters.put("userId", userId);
+        }
+        if (lastId != null) {
+            conditions.add("r.id > :lastId");
+            parameters.put("lastId", lastId);
+        }
+        var jpql = """
+                select new school.sorokin.reservation.reservations.Reservation(
+                    r.id, r.userId, r.roomId, r.startDate, r.endDate, r.status, r.version)
+                from ReservationEntity r
+                """
+                + (conditions.isEmpty() ? "" : "where " + String.join(" and ", conditions) + "\n")
+                + "order by r.id";
+        var query = entityManager.createQuery(jpql, Reservation.class);
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+}
@@ -1,14 +1,19 @@
 package school.sorokin.reservation.reservations;
 
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import school.sorokin.reservation.reservations.archive.ReservationArchive;
 import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+import school.sorokin.reservation.reservations.changes.ReservationChangeNotifier;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ReservationService {
@@ -16,48 +21,92 @@ public class ReservationService {
     private final ReservationRepository repository;
     private final ReservationMapper mapper;
     private final ReservationAvailabilityService availabilityService;
+    private final RoomApprovalLock roomApprovalLock;
+    private final ReservationCache cache;
+    private final ReservationMetrics metrics;
+    private final ReservationChangeNotifier changeNotifier;
+    private final ReservationArchive archive;
 
-    public ReservationService(ReservationRepository repositiry, ReservationMapper mapper, ReservationAvailabilityService availabilityService) {
+    public ReservationService(ReservationRepository repositiry, ReservationMapper mapper, ReservationAvailabilityService availabilityService, RoomApprovalLock roomApprovalLock, ReservationCache cache, ReservationMetrics metrics, ReservationChangeNotifier changeNotifier, ReservationArchive archive) {
         this.repository = repositiry;
         this.mapper = mapper;
         this.availabilityService = availabilityService;
+        this.roomApprovalLock = roomApprovalLock;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.changeNotifier = changeNotifier;
+        this.archive = archive;
     }
 
     public Reservation getReservationById(Long id){
-        ReservationEntity reservationEntity = repository.findById(id)
+        return cache.get(id, this::loadReservationById);
+    }
+
+    private Reservation loadReservationById(Long id){
+        return repository.findReservationById(id)
+                .or(() -> archive.findById(id))
                 .orElseThrow(() -> new EntityNotFoundException(
                         "Not found reservation by id = "+id
         ));
-        return mapper.toDomain(reservationEntity);
     }
 
+    /**
+     * Listings are read straight into {@link Reservation} records: no managed entities,
+     * no persistence-context snapshots and no mapping step.
+     */
+    @Transactional(readOnly = true)
     public List<Reservation> searchAllByFilter(
             ReservationSearchFilter filter
     ) {
-        int pageSize = filter.pageSize() != null
-                ? filter.pageSize() : 10;
-        int pageNumber = filter.pageNumber() != null
-                ? filter.pageNumber() : 0;
+        int pageSize = filter.checkedPageSize();
+        int pageNumber = filter.checkedPageNumber();
         var pageable = Pageable
                 .ofSize(pageSize)
                 .withPage(pageNumber);
 
-        List<ReservationEntity> allEntities = repository.searchAllByFilter(
+        return repository.searchAllByFilter(
                 filter.roomId(),
                 filter.userId(),
                 pageable
         );
-        return allEntities.stream().map
-                (mapper::toDomain).toList();
     }
 
-    public Reservation createReservation(Reservation reservationToCreate) {
-        if(reservationToCreate.status()!=null){
-            throw new IllegalArgumentException("Status should be empty ");
-        }
-        if(!reservationToCreate.endDate().isAfter(reservationToCreate.startDate())){
-            throw new IllegalArgumentException("start should to be before end");
+    @Transactional(readOnly = true)
+    public ReservationPage searchAllByCursor(
+            ReservationSearchFilter filter
+    ) {
+        int pageSize = filter.checkedPageSize();
+        long lastId = ReservationCursor.decode(filter.cursor());
+
+        List<Reservation> reservations = repository.searchAllByFilterAfter(
+                filter.roomId(),
+                filter.userId(),
+                lastId,
+                Pageable.ofSize(pageSize + 1)
+        );
+        boolean hasNext = reservations.size() > pageSize;
+        var page = hasNext ? reservations.subList(0, pageSize) : reservations;
+        var nextCursor = hasNext
+                ? ReservationCursor.encode(page.get(page.size() - 1).id())
+                : null;
+        return new ReservationPage(page, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportByFilter(
+            ReservationSearchFilter filter,
+            Consumer<Reservation> consumer
+    ) {
+        try (Stream<Reservation> reservations = repository.streamAllByFilter(
+                filter.roomId(),
+                filter.userId()
+        )) {
+            reservations.forEach(consumer);
         }
+    }
+
+    public Reservation createReservation(Reservation reservationToCreate) {
+        checkNewReservation(reservationToCreate);
 
         var entityToSave = mapper.toEntity(reservationToCreate);
         entityToSave.setStatus(ReservationStatus.PENDING);
@@ -66,65 +115,174 @@ public class ReservationService {
         return mapper.toDomain(savedEntity);
     }
 
+    static void checkNewReservation(Reservation reservationToCreate) {
+        if(reservationToCreate.status()!=null){
+            throw new IllegalArgumentException("Status should be empty ");
+        }
+        if(reservationToCreate.version()!=null){
+            throw new IllegalArgumentException("Version should be empty ");
+        }
+        if(!reservationToCreate.endDate().isAfter(reservationToCreate.startDate())){
+            throw new IllegalArgumentException("start should to be before end");
+        }
+    }
+
+    /**
+     * Updates a pending reservation with one conditional UPDATE on id, version and status.
+     * The row is read back only when nothing matched, to tell the caller why.
+     */
+    @Transactional
     public Reservation updateReservation(Long id, Reservation reservationToUpdate) {
-        var reservationEntity = repository.findById(id)
-                .orElseThrow(()->new NoSuchElementException("Not found reservation by id = "+id));
-        if(reservationEntity.getStatus()!=ReservationStatus.PENDING){
-            throw new IllegalArgumentException("cannot modify reservation status " + reservationEntity.getStatus());
+        if(reservationToUpdate.version()==null){
+            throw new IllegalArgumentException("version is required to update reservation");
         }
         if(!reservationToUpdate.endDate().isAfter(reservationToUpdate.startDate())){
             throw new IllegalArgumentException("start should to be before end");
         }
         var isAvailableToApprove = availabilityService.isReservationAvailable(
-                reservationEntity.getRoomId(),
-                reservationEntity.getStartDate(),
-                reservationEntity.getEndDate()
+                reservationToUpdate.roomId(),
+                reservationToUpdate.startDate(),
+                reservationToUpdate.endDate()
         );
         if(!isAvailableToApprove)
             throw new IllegalArgumentException("cannot approve because of conflict ");
 
-        var reservationToSave = mapper.toEntity(reservationToUpdate);
-        reservationToSave.setId(reservationEntity.getId());
-        reservationToSave.setStatus(ReservationStatus.PENDING);
+        int updated = repository.updatePending(
+                id,
+                reservationToUpdate.version(),
+                reservationToUpdate.userId(),
+                reservationToUpdate.roomId(),
+                reservationToUpdate.startDate(),
+                reservationToUpdate.endDate());
+        if(updated==0){
+            throw updateFailure(id, reservationToUpdate.version());
+        }
+        changeNotifier.publish(
+                id,
+                reservationToUpdate.roomId(),
+                ReservationStatus.PENDING,
+                reservationToUpdate.startDate(),
+                reservationToUpdate.endDate());
+        cache.invalidate(id);
+        return new Reservation(
+                id,
+                reservationToUpdate.userId(),
+                reservationToUpdate.roomId(),
+                reservationToUpdate.startDate(),
+                reservationToUpdate.endDate(),
+                ReservationStatus.PENDING,
+                reservationToUpdate.version() + 1);
+    }
 
-        var updatedReservation = repository.save(reservationToSave);
-        return mapper.toDomain(updatedReservation);
+    private RuntimeException updateFailure(Long id, Long expectedVersion) {
+        var reservationEntity = repository.findById(id).orElse(null);
+        if(reservationEntity==null){
+            return new EntityNotFoundException("Not found reservation by id = "+id);
+        }
+        if(reservationEntity.getStatus()!=ReservationStatus.PENDING){
+            return new IllegalArgumentException("cannot modify reservation status " + reservationEntity.getStatus());
+        }
+        return new OptimisticLockingFailureException("reservation id = " + id
+                + " was modified concurrently, expected version " + expectedVersion
+                + " but found " + reservationEntity.getVersion());
     }
 
     @Transactional
     public void cancelReservation(Long id) {
         var reservation = repository.findById(id)
-                        .orElseThrow(()-> new EntityNotFoundException("Not found reservation by id = "+id));
+                        .orElseThrow(()-> {
+                            metrics.cancellation(CancelOutcome.NOT_FOUND);
+                            return new EntityNotFoundException("Not found reservation by id = "+id);
+                        });
         if(reservation.getStatus().equals(ReservationStatus.APPROVED)){
+            metrics.cancellation(CancelOutcome.APPROVED);
             throw new IllegalStateException("can not canceled reservation without manager");
         }
         if(reservation.getStatus().equals(ReservationStatus.CANCELED)){
+            metrics.cancellation(CancelOutcome.ALREADY_CANCELED);
             throw new IllegalStateException("can not cancel reservation, it was already cancelled");
         }
-        repository.setStatus(id, ReservationStatus.CANCELED);
+        // the row was read without a lock: an approval or edit that committed since then wins
+        if(repository.cancelPending(id, reservation.getVersion())==0){
+            metrics.cancellation(CancelOutcome.STATUS_CHANGED);
+            throw new OptimisticLockingFailureException("reservation id = " + id
+                    + " was modified concurrently, cancel it again after reloading");
+        }
+        changeNotifier.publish(
+                id,
+                reservation.getRoomId(),
+                ReservationStatus.CANCELED,
+                reservation.getStartDate(),
+                reservation.getEndDate());
+        cache.invalidate(id);
+        availabilityService.markReleased(id, reservation.getRoomId());
+        metrics.cancellation(CancelOutcome.CANCELED);
         log.info("successfully canceled reservation by id "+ id);
     }
 
     public Reservation approveReservation(Long id) {
+        while (true) {
+            Long roomId = repository.findRoomIdById(id)
+                    .orElseThrow(()->{
+                        metrics.approval(ReservationMetrics.Approval.NOT_FOUND);
+                        return new NoSuchElementException("Not found reservation by id = "+id);
+                    });
+            var approved = roomApprovalLock.executeLocked(
+                    roomId,
+                    () -> approveInRoom(id, roomId),
+                    entity -> {
+                        if (entity == null) return;
+                        cache.invalidate(entity.getId());
+                        availabilityService.markApproved(
+                                entity.getId(),
+                                entity.getRoomId(),
+                                entity.getStartDate(),
+                                entity.getEndDate());
+                    });
+            if (approved != null) {
+                metrics.approval(ReservationMetrics.Approval.APPROVED);
+                return mapper.toDomain(approved);
+            }
+            metrics.approval(ReservationMetrics.Approval.RETRY);
+            log.info("reservation id={} moved away from room {} before approval, retrying", id, roomId);
+        }
+    }
+
+    private ReservationEntity approveInRoom(Long id, Long roomId) {
         var reservationEntity = repository.findById(id)
-                .orElseThrow(()->new NoSuchElementException("Not found reservation by id = "+id));
+                .orElseThrow(()->{
+                    metrics.approval(ReservationMetrics.Approval.NOT_FOUND);
+                    return new NoSuchElementException("Not found reservation by id = "+id);
+                });
+        if (!reservationEntity.getRoomId().equals(roomId)) return null;
 
         if(reservationEntity.getStatus()!=ReservationStatus.PENDING){
+            metrics.approval(ReservationMetrics.Approval.INVALID_STATUS);
             throw new IllegalArgumentException("cannot approve reservation status " + reservationEntity.getStatus());
         }
 
-        var isAvailableToApprove = availabilityService.isReservationAvailable(
-                reservationEntity.getRoomId(),
-                reservationEntity.getStartDate(),
-                reservationEntity.getEndDate()
-        );
-        if(!isAvailableToApprove)
+        var isAvailableToApprove = roomApprovalLock.isClusterWide()
+                ? availabilityService.isReservationAvailableInDatabase(
+                        roomId,
+                        reservationEntity.getStartDate(),
+                        reservationEntity.getEndDate())
+                : availabilityService.isReservationAvailable(
+                        roomId,
+                        reservationEntity.getStartDate(),
+                        reservationEntity.getEndDate());
+        if(!isAvailableToApprove) {
+            metrics.approval(ReservationMetrics.Approval.CONFLICT);
             throw new IllegalArgumentException("cannot approve because of conflict ");
-
+        }
 
         reservationEntity.setStatus(ReservationStatus.APPROVED);
-        repository.save(reservationEntity);
-
-        return mapper.toDomain(reservationEntity);
+        var approved = repository.save(reservationEntity);
+        changeNotifier.publish(
+                approved.getId(),
+                approved.getRoomId(),
+                ReservationStatus.APPROVED,
+                approved.getStartDate(),
+                approved.getEndDate());
+        return approved;
     }
 }
@@ -0,0 +1,105 @@
+package school.sorokin.reservation.reservations;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Serializes approvals of the same room while approvals of different rooms run in parallel.
+ * STRIPED keeps a fixed array of in-process locks and holds the stripe until the transaction
+ * has committed; ADVISORY takes a Postgres transaction-level advisory lock on the roomId,
+ * which also serializes approvals across several application instances.
+ */
+@Component
+public class RoomApprovalLock {
+    private final RoomLockMode mode;
+    private final ReentrantLock[] stripes;
+    private final TransactionOperations transactionOperations;
+    private final JdbcOperations jdbcOperations;
+
+    @Autowired
+    public RoomApprovalLock(
+            @Value("${reservation.approval.lock-mode:STRIPED}") RoomLockMode mode,
+            @Value("${reservation.approval.lock-stripes:256}") int stripeCount,
+            TransactionOperations transactionOperations,
+            JdbcOperations jdbcOperations
+    ) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("lock stripes should be positive");
+        }
+        this.mode = mode;
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.transactionOperations = transactionOperations;
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    public boolean isClusterWide() {
+        return mode == RoomLockMode.ADVISORY;
+    }
+
+    public <T> T executeLocked(Long roomId, Supplier<T> action, Consumer<T> afterCommit) {
+        if (mode == RoomLockMode.ADVISORY) {
+            T result = transactionOperations.execute(status -> {
+                jdbcOperations.query("select pg_advisory_xact_lock(?)", rs -> null, roomId);
+                return action.get();
+            });
+            afterCommit.accept(result);
+            return result;
+        }
+        var lock = stripes[stripeOf(roomId)];
+        lock.lock();
+        try {
+            T result = transactionOperations.execute(status -> action.get());
+            afterCommit.accept(result);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Like {@link #executeLocked} for several rooms at once. Locks are taken in ascending
+     * order, so this never deadlocks with single-room callers or with itself.
+     */
+    public <T> T executeLockedAll(Collection<Long> roomIds, Supplier<T> action, Consumer<T> afterCommit) {
+        if (mode == RoomLockMode.ADVISORY) {
+            Long[] sortedRoomIds = roomIds.stream().distinct().sorted().toArray(Long[]::new);
+            T result = transactionOperations.execute(status -> {
+                jdbcOperations.query("select pg_advisory_xact_lock(r) from unnest(?::bigint[]) as r",
+                        rs -> null, (Object) sortedRoomIds);
+                return action.get();
+            });
+            afterCommit.accept(result);
+            return result;
+        }
+        int[] stripeIndexes = roomIds.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripeIndexes) {
+                stripes[stripe].lock();
+                locked++;
+            }
+            T result = transactionOperations.execute(status -> action.get());
+            afterCommit.accept(result);
+            return result;
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[stripeIndexes[i]].unlock();
+            }
+        }
+    }
+
+    private int stripeOf(Long roomId) {
+        return Math.floorMod(Long.hashCode(roomId), stripes.length);
+    }
+}
@@ -0,0 +1,6 @@
+package school.sorokin.reservation.reservations;
+
+public enum RoomLockMode {
+    STRIPED,
+    ADVISORY
+}
@@ -0,0 +1,22 @@
+package school.sorokin.reservation.reservations.approval;
+
+import school.sorokin.reservation.reservations.Reservation;
+
+public record ApprovalOutcome(
+        Long reservationId,
+        ApprovalState state,
+        String message,
+        Reservation reservation
+) {
+    static ApprovalOutcome queued(Long reservationId) {
+        return new ApprovalOutcome(reservationId, ApprovalState.QUEUED, null, null);
+    }
+
+    static ApprovalOutcome approved(Reservation reservation) {
+        return new ApprovalOutcome(reservation.id(), ApprovalState.APPROVED, null, reservation);
+    }
+
+    static ApprovalOutcome rejected(Long reservationId, String message) {
+        return new ApprovalOutcome(reservationId, ApprovalState.REJECTED, message, null);
+    }
+}
@@ -0,0 +1,255 @@
+package school.sorokin.reservation.reservations.approval;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationCache;
+import school.sorokin.reservation.reservations.ReservationEntity;
+import school.sorokin.reservation.reservations.ReservationMetrics;
+import school.sorokin.reservation.reservations.ReservationRepository;
+import school.sorokin.reservation.reservations.ReservationStatus;
+import school.sorokin.reservation.reservations.RoomApprovalLock;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+import school.sorokin.reservation.reservations.availability.ReservationInterval;
+import school.sorokin.reservation.reservations.changes.ReservationChangeNotifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous approvals. Requests are queued and drained in batches: one transaction per
+ * batch locks all affected rooms, loads the reservations and the approved intervals of those
+ * rooms with one query each, resolves conflicts per room in request order (earliest request
+ * wins) and approves the winners with a single UPDATE.
+ */
+@Service
+public class ApprovalQueue {
+    private static final Logger log = LoggerFactory.getLogger(ApprovalQueue.class);
+    private static final Duration FULL_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final ReservationRepository repository;
+    private final RoomApprovalLock roomApprovalLock;
+    private final ReservationCache cache;
+    private final ReservationAvailabilityService availabilityService;
+    private final ReservationChangeNotifier changeNotifier;
+    private final ReservationMetrics metrics;
+    private final int batchSize;
+    private final int maxPending;
+
+    private final Queue<Long> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Cache<Long, CompletableFuture<ApprovalOutcome>> outcomes;
+
+    public ApprovalQueue(
+            ReservationRepository repository,
+            RoomApprovalLock roomApprovalLock,
+            ReservationCache cache,
+            ReservationAvailabilityService availabilityService,
+            ReservationChangeNotifier changeNotifier,
+            ReservationMetrics metrics,
+            @Value("${reservation.approval.queue.batch-size:1000}") int batchSize,
+            @Value("${reservation.approval.queue.max-pending:100000}") int maxPending,
+            @Value("${reservation.approval.queue.outcome-ttl:10m}") Duration outcomeTtl
+    ) {
+        this.repository = repository;
+        this.roomApprovalLock = roomApprovalLock;
+        this.cache = cache;
+        this.availabilityService = availabilityService;
+        this.changeNotifier = changeNotifier;
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.outcomes = Caffeine.newBuilder()
+                .expireAfterWrite(outcomeTtl)
+                .build();
+    }
+
+    public ApprovalOutcome enqueue(Long id) {
+        var added = new boolean[1];
+        outcomes.asMap().compute(id, (key, existing) -> {
+            if (existing != null && !existing.isDone()) return existing;
+            if (pendingCount.incrementAndGet() > maxPending) {
+                pendingCount.decrementAndGet();
+                throw new ApprovalQueueFullException("approval queue is full", FULL_RETRY_AFTER);
+            }
+            added[0] = true;
+            return new CompletableFuture<>();
+        });
+        if (added[0]) pending.add(id);
+        return ApprovalOutcome.queued(id);
+    }
+
+    public CompletableFuture<ApprovalOutcome> outcome(Long id, Duration wait) {
+        var future = outcomes.getIfPresent(id);
+        if (future == null) {
+            throw new EntityNotFoundException("No approval requested for reservation id = " + id);
+        }
+        if (future.isDone() || wait.isZero()) {
+            return CompletableFuture.completedFuture(future.getNow(ApprovalOutcome.queued(id)));
+        }
+        return future.copy().completeOnTimeout(ApprovalOutcome.queued(id), wait.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.approval.queue.drain-interval-ms:100}")
+    public void drain() {
+        while (!pending.isEmpty()) {
+            var batch = new ArrayList<Long>(Math.min(batchSize, pendingCount.get()));
+            Long id;
+            while (batch.size() < batchSize && (id = pending.poll()) != null) {
+                batch.add(id);
+            }
+            pendingCount.addAndGet(-batch.size());
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                log.error("approval batch of {} failed", batch.size(), e);
+                batch.forEach(failed -> complete(ApprovalOutcome.rejected(failed, "approval failed: " + e.getMessage())));
+            }
+        }
+    }
+
+    private void process(List<Long> batch) {
+        var roomIds = Set.copyOf(repository.findRoomIdsByIds(batch));
+        var result = roomApprovalLock.executeLockedAll(roomIds, () -> resolve(batch, roomIds), resolved -> {
+            for (var reservation : resolved.approved()) {
+                cache.invalidate(reservation.id());
+                availabilityService.markApproved(
+                        reservation.id(),
+                        reservation.roomId(),
+                        reservation.startDate(),
+                        reservation.endDate());
+            }
+        });
+        result.approved().forEach(reservation -> {
+            metrics.approval(ReservationMetrics.Approval.APPROVED);
+            complete(ApprovalOutcome.approved(reservation));
+        });
+        result.rejected().forEach(this::complete);
+        if (!result.moved().isEmpty()) {
+            log.info("reservations {} moved to another room before approval, requeueing", result.moved());
+            pendingCount.addAndGet(result.moved().size());
+            pending.addAll(result.moved());
+        }
+    }
+
+    private BatchResult resolve(List<Long> batch, Set<Long> lockedRoomIds) {
+        Map<Long, ReservationEntity> entities = repository.findAllById(batch).stream()
+                .collect(Collectors.toMap(ReservationEntity::getId, Function.identity()));
+        var rejected = new ArrayList<ApprovalOutcome>();
+        var moved = new ArrayList<Long>();
+        Map<Long, List<ReservationEntity>> candidatesByRoom = new LinkedHashMap<>();
+        for (Long id : batch) {
+            var entity = entities.get(id);
+            if (entity == null) {
+                metrics.approval(ReservationMetrics.Approval.NOT_FOUND);
+                rejected.add(ApprovalOutcome.rejected(id, "Not found reservation by id = " + id));
+            } else if (!lockedRoomIds.contains(entity.getRoomId())) {
+                moved.add(id);
+            } else if (entity.getStatus() != ReservationStatus.PENDING) {
+                metrics.approval(ReservationMetrics.Approval.INVALID_STATUS);
+                rejected.add(ApprovalOutcome.rejected(id, "cannot approve reservation status " + entity.getStatus()));
+            } else {
+                candidatesByRoom.computeIfAbsent(entity.getRoomId(), key -> new ArrayList<>()).add(entity);
+            }
+        }
+        if (candidatesByRoom.isEmpty()) {
+            return new BatchResult(List.of(), rejected, moved);
+        }
+
+        var candidates = candidatesByRoom.values().stream().flatMap(List::stream).toList();
+        var from = candidates.stream().map(ReservationEntity::getStartDate).min(LocalDate::compareTo).orElseThrow();
+        var to = candidates.stream().map(ReservationEntity::getEndDate).max(LocalDate::compareTo).orElseThrow();
+        Map<Long, List<ReservationInterval>> taken = new HashMap<>(repository.findIntervalsInRange(
+                        candidatesByRoom.keySet(), from, to, ReservationStatus.APPROVED)
+                .stream()
+                .collect(Collectors.groupingBy(ReservationInterval::roomId)));
+
+        var winners = new ArrayList<ReservationInterval>();
+        candidatesByRoom.forEach((roomId, roomCandidates) -> {
+            var roomTaken = new ArrayList<>(taken.getOrDefault(roomId, List.of()));
+            for (var entity : roomCandidates) {
+                var interval = new ReservationInterval(
+                        entity.getId(), roomId, entity.getStartDate(), entity.getEndDate());
+                if (overlapsAny(interval, roomTaken)) {
+                    metrics.approval(ReservationMetrics.Approval.CONFLICT);
+                    rejected.add(ApprovalOutcome.rejected(entity.getId(), "cannot approve because of conflict "));
+                } else {
+                    roomTaken.add(interval);
+                    winners.add(interval);
+                }
+            }
+        });
+        if (winners.isEmpty()) {
+            return new BatchResult(List.of(), rejected, moved);
+        }
+
+        // the dates were checked as read, so a winner edited since then must not be approved
+        var approvedIds = Set.copyOf(repository.approvePending(
+                winners.stream().map(ReservationInterval::id).toArray(Long[]::new),
+                winners.stream().map(interval -> entities.get(interval.id()).getVersion()).toArray(Long[]::new)));
+        winners.removeIf(interval -> {
+            if (approvedIds.contains(interval.id())) return false;
+            metrics.approval(ReservationMetrics.Approval.STATUS_CHANGED);
+            rejected.add(ApprovalOutcome.rejected(interval.id(), "reservation changed during approval"));
+            return true;
+        });
+        changeNotifier.publishAll(ReservationStatus.APPROVED, winners);
+        var approved = winners.stream()
+                .map(interval -> {
+                    var entity = entities.get(interval.id());
+                    return new Reservation(
+                            entity.getId(),
+                            entity.getUserId(),
+                            entity.getRoomId(),
+                            entity.getStartDate(),
+                            entity.getEndDate(),
+                            ReservationStatus.APPROVED,
+                            entity.getVersion() + 1);
+                })
+                .toList();
+        return new BatchResult(approved, rejected, moved);
+    }
+
+    private static boolean overlapsAny(ReservationInterval interval, List<ReservationInterval> taken) {
+        for (var other : taken) {
+            if (other.startDate().isBefore(interval.endDate()) && interval.startDate().isBefore(other.endDate())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void complete(ApprovalOutcome outcome) {
+        var future = outcomes.getIfPresent(outcome.reservationId());
+        if (future != null) {
+            future.complete(outcome);
+            outcomes.put(outcome.reservationId(), future);
+        }
+    }
+
+    private record BatchResult(
+            List<Reservation> approved,
+            List<ApprovalOutcome> rejected,
+            List<Long> moved
+    ) {
+    }
+}
@@ -0,0 +1,53 @@
+package school.sorokin.reservation.reservations.approval;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/reservation")
+public class ApprovalQueueController {
+    private static final Logger log = LoggerFactory.getLogger(ApprovalQueueController.class);
+    private static final long MAX_WAIT_SECONDS = 30;
+
+    private final ApprovalQueue approvalQueue;
+
+    public ApprovalQueueController(ApprovalQueue approvalQueue) {
+        this.approvalQueue = approvalQueue;
+    }
+
+    @PostMapping("/{id}/approval")
+    public ResponseEntity<ApprovalOutcome> requestApproval(
+            @PathVariable("id") Long id
+    ) {
+        log.debug("called requestApproval id={}", id);
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .location(URI.create("/reservation/" + id + "/approval"))
+                .body(approvalQueue.enqueue(id));
+    }
+
+    @GetMapping("/{id}/approval")
+    public CompletableFuture<ResponseEntity<ApprovalOutcome>> getApproval(
+            @PathVariable("id") Long id,
+            @RequestParam(name = "waitSeconds", defaultValue = "0") long waitSeconds
+    ) {
+        log.debug("called getApproval id={}, waitSeconds={}", id, waitSeconds);
+        if (waitSeconds < 0 || waitSeconds > MAX_WAIT_SECONDS) {
+            throw new IllegalArgumentException("waitSeconds should be between 0 and " + MAX_WAIT_SECONDS);
+        }
+        return approvalQueue.outcome(id, Duration.ofSeconds(waitSeconds))
+                .thenApply(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,20 @@
+package school.sorokin.reservation.reservations.approval;
+
+import java.time.Duration;
+
+/**
+ * {@link ApprovalQueue} already holds {@code reservation.approval.queue.max-pending} approvals;
+ * the client may retry after {@link #retryAfter()}, once a drain has made room.
+ */
+public class ApprovalQueueFullException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ApprovalQueueFullException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+}
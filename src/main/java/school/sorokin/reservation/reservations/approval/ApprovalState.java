@@ -0,0 +1,7 @@
+package school.sorokin.reservation.reservations.approval;
+
+public enum ApprovalState {
+    QUEUED,
+    APPROVED,
+    REJECTED
+}
@@ -0,0 +1,172 @@
+package school.sorokin.reservation.reservations.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationStatus;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+import school.sorokin.reservation.reservations.availability.ReservationInterval;
+import school.sorokin.reservation.reservations.changes.ReservationChangeNotifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Moves canceled reservations and reservations that ended more than {@code retention} ago from
+ * {@code reservations} into the monthly partitions of {@code reservations_archive}, so conflict
+ * checks and listings only read live rows. Archived reservations stay readable by id. Archived
+ * approved reservations are released from the interval index on this node and, through the
+ * change notifier, on the others.
+ */
+@Component
+public class ReservationArchive {
+    private static final Logger log = LoggerFactory.getLogger(ReservationArchive.class);
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    private final boolean enabled;
+    private final Duration retention;
+    private final int batchSize;
+    private final JdbcOperations jdbcOperations;
+    private final TransactionOperations transactionOperations;
+    private final ReservationAvailabilityService availabilityService;
+    private final ReservationChangeNotifier changeNotifier;
+
+    public ReservationArchive(
+            @Value("${reservation.archive.enabled:false}") boolean enabled,
+            @Value("${reservation.archive.retention:30d}") Duration retention,
+            @Value("${reservation.archive.batch-size:5000}") int batchSize,
+            JdbcOperations jdbcOperations,
+            TransactionOperations transactionOperations,
+            ReservationAvailabilityService availabilityService,
+            ReservationChangeNotifier changeNotifier
+    ) {
+        this.enabled = enabled;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.jdbcOperations = jdbcOperations;
+        this.transactionOperations = transactionOperations;
+        this.availabilityService = availabilityService;
+        this.changeNotifier = changeNotifier;
+    }
+
+    public Optional<Reservation> findById(Long id) {
+        if (!enabled) return Optional.empty();
+        return jdbcOperations.query("""
+                        select id, client_id, room_id, start_date, end_date, status, version
+                        from reservations_archive
+                        where id = ?
+                        """,
+                (rs, rowNum) -> new Reservation(
+                        rs.getLong("id"),
+                        rs.getLong("client_id"),
+                        rs.getLong("room_id"),
+                        rs.getObject("start_date", LocalDate.class),
+                        rs.getObject("end_date", LocalDate.class),
+                        ReservationStatus.valueOf(rs.getString("status")),
+                        rs.getLong("version")),
+                id).stream().findFirst();
+    }
+
+    @Scheduled(
+            initialDelayString = "${reservation.archive.initial-delay-ms:60000}",
+            fixedDelayString = "${reservation.archive.interval-ms:3600000}")
+    public void archiveScheduled() {
+        if (!enabled) return;
+        archive(LocalDate.now().minusDays(retention.toDays()));
+    }
+
+    /**
+     * Archives everything that ended before {@code cutoff} plus all canceled reservations,
+     * one transaction per batch. Returns the number of moved rows.
+     */
+    public int archive(LocalDate cutoff) {
+        long started = System.nanoTime();
+        int total = 0;
+        int moved;
+        do {
+            var batch = transactionOperations.execute(status -> archiveBatch(cutoff));
+            batch.released().forEach(interval -> availabilityService.markReleased(interval.id(), interval.roomId()));
+            moved = batch.moved();
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            log.info("archived {} reservations ended before {} or canceled in {} ms",
+                    total, cutoff, (System.nanoTime() - started) / 1_000_000);
+        }
+        return total;
+    }
+
+    private Batch archiveBatch(LocalDate cutoff) {
+        // another instance holding the lock is already archiving; leave the work to it
+        Boolean locked = jdbcOperations.queryForObject(
+                "select pg_try_advisory_xact_lock(hashtext('reservations_archive'), 0)", Boolean.class);
+        if (!Boolean.TRUE.equals(locked)) return Batch.EMPTY;
+
+        var ids = new ArrayList<Long>(batchSize);
+        var months = new TreeSet<YearMonth>();
+        jdbcOperations.query("""
+                        select id, start_date from reservations
+                        where status = 'CANCELED' or end_date < ?
+                        limit ?
+                        for update skip locked
+                        """,
+                rs -> {
+                    ids.add(rs.getLong("id"));
+                    months.add(YearMonth.from(rs.getObject("start_date", LocalDate.class)));
+                },
+                cutoff, batchSize);
+        if (ids.isEmpty()) return Batch.EMPTY;
+
+        months.forEach(this::ensurePartition);
+        var released = new ArrayList<ReservationInterval>();
+        int[] moved = {0};
+        jdbcOperations.query("""
+                        with moved as (
+                            delete from reservations
+                            where id = any(?::bigint[])
+                            returning id, client_id, room_id, start_date, end_date, status, version
+                        ), archived as (
+                            insert into reservations_archive (id, client_id, room_id, start_date, end_date, status, version)
+                            select id, client_id, room_id, start_date, end_date, status, version from moved
+                        )
+                        select id, room_id, start_date, end_date, status from moved
+                        """,
+                rs -> {
+                    moved[0]++;
+                    if (!ReservationStatus.APPROVED.name().equals(rs.getString("status"))) return;
+                    released.add(new ReservationInterval(
+                            rs.getLong("id"),
+                            rs.getLong("room_id"),
+                            rs.getObject("start_date", LocalDate.class),
+                            rs.getObject("end_date", LocalDate.class)));
+                },
+                (Object) ids.toArray(Long[]::new));
+        changeNotifier.publishArchived(released);
+        return new Batch(moved[0], released);
+    }
+
+    private record Batch(int moved, List<ReservationInterval> released) {
+        static final Batch EMPTY = new Batch(0, List.of());
+    }
+
+    private void ensurePartition(YearMonth month) {
+        var partition = "reservations_archive_" + month.format(PARTITION_SUFFIX);
+        Boolean exists = jdbcOperations.queryForObject("select to_regclass(?) is not null", Boolean.class, partition);
+        if (Boolean.TRUE.equals(exists)) return;
+        jdbcOperations.execute("create table if not exists " + partition
+                + " partition of reservations_archive for values from ('" + month.atDay(1)
+                + "') to ('" + month.plusMonths(1).atDay(1) + "')");
+        log.info("created archive partition {}", partition);
+    }
+}
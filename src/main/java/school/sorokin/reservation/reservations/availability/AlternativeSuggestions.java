@@ -0,0 +1,18 @@
+package school.sorokin.reservation.reservations.availability;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Availability of the requested stay together with the nearest free windows of the same length
+ * for that room (closest start first) and the candidate rooms that are free for the requested dates.
+ */
+public record AlternativeSuggestions(
+        Long roomId,
+        LocalDate startDate,
+        LocalDate endDate,
+        AvailabilityStatus status,
+        List<DateWindow> windows,
+        List<Long> freeRoomIds
+) {
+}
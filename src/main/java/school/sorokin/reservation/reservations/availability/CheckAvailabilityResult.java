@@ -0,0 +1,11 @@
+package school.sorokin.reservation.reservations.availability;
+
+import java.time.LocalDate;
+
+public record CheckAvailabilityResult(
+        Long roomId,
+        LocalDate startDate,
+        LocalDate endDate,
+        AvailabilityStatus status
+) {
+}
@@ -0,0 +1,9 @@
+package school.sorokin.reservation.reservations.availability;
+
+import java.time.LocalDate;
+
+public record DateWindow(
+        LocalDate startDate,
+        LocalDate endDate
+) {
+}
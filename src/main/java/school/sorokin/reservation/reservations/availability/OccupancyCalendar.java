@@ -0,0 +1,11 @@
+package school.sorokin.reservation.reservations.availability;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record OccupancyCalendar(
+        LocalDate startDate,
+        LocalDate endDate,
+        List<RoomOccupancy> rooms
+) {
+}
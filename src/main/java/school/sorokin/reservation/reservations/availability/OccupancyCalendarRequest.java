@@ -0,0 +1,19 @@
+package school.sorokin.reservation.reservations.availability;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record OccupancyCalendarRequest(
+        @NotEmpty
+        @Size(max = 1000)
+        List<@NotNull Long> roomIds,
+        @NotNull
+        LocalDate startDate,
+        @NotNull
+        LocalDate endDate
+) {
+}
@@ -5,10 +5,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import school.sorokin.reservation.reservations.ReservationController;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @RestController
 @RequestMapping("/reservation/availability")
 public class ReservationAvailabilityController {
@@ -24,7 +28,7 @@ public class ReservationAvailabilityController {
     public ResponseEntity<CheckAvailabilityResponse> checkAvailability(
             @Valid CheckAvailabilityRequest request
     ){
-        log.info("called method checkAvailability request = {}",request);
+        log.debug("called method checkAvailability request = {}",request);
         boolean isAvailable = service.isReservationAvailable(
                 request.roomId(),
                 request.startDate(),
@@ -41,4 +45,46 @@ public class ReservationAvailabilityController {
 
     }
 
+    @PostMapping("/check-batch")
+    public ResponseEntity<List<CheckAvailabilityResult>> checkAvailabilityBatch(
+            @RequestBody @Valid CheckAvailabilityBatchRequest batchRequest
+    ){
+        log.debug("called method checkAvailabilityBatch size = {}", batchRequest.requests().size());
+        var requests = batchRequest.requests();
+        var statuses = service.checkAvailability(requests);
+        var results = new ArrayList<CheckAvailabilityResult>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            var request = requests.get(i);
+            results.add(new CheckAvailabilityResult(
+                    request.roomId(),
+                    request.startDate(),
+                    request.endDate(),
+                    statuses.get(i)));
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("/calendar")
+    public ResponseEntity<OccupancyCalendar> occupancyCalendar(
+            @RequestBody @Valid OccupancyCalendarRequest request
+    ){
+        log.debug("called method occupancyCalendar rooms = {}", request.roomIds().size());
+        return ResponseEntity.ok(service.occupancy(
+                request.roomIds(),
+                request.startDate(),
+                request.endDate()));
+    }
+
+    @PostMapping("/suggestions")
+    public ResponseEntity<AlternativeSuggestions> suggestAlternatives(
+            @RequestBody @Valid SuggestAlternativesRequest request
+    ){
+        log.debug("called method suggestAlternatives request = {}", request);
+        return ResponseEntity.ok(service.suggestAlternatives(
+                request.roomId(),
+                request.startDate(),
+                request.endDate(),
+                request.limit() == null ? ReservationAvailabilityService.DEFAULT_SUGGESTIONS : request.limit(),
+                request.alternativeRoomIds() == null ? List.of() : request.alternativeRoomIds()));
+    }
 }
@@ -2,21 +2,55 @@ package school.sorokin.reservation.reservations.availability;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import school.sorokin.reservation.reservations.ReservationController;
+import school.sorokin.reservation.reservations.ReservationMetrics;
 import school.sorokin.reservation.reservations.ReservationRepository;
 import school.sorokin.reservation.reservations.ReservationStatus;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class ReservationAvailabilityService {
+    static final int MAX_CALENDAR_DAYS = 366;
+    static final int MAX_SUGGESTIONS = 20;
+    static final int DEFAULT_SUGGESTIONS = 5;
+    static final int SUGGESTION_SEARCH_DAYS = 90;
     private final ReservationRepository repository;
+    private final RoomIntervalIndex index;
+    private final boolean indexEnabled;
+    private final ReservationMetrics metrics;
     private static final Logger log = LoggerFactory.getLogger(ReservationController.class);
-    public ReservationAvailabilityService(ReservationRepository repository) {
+    public ReservationAvailabilityService(
+            ReservationRepository repository,
+            RoomIntervalIndex index,
+            @Value("${reservation.availability.index.enabled:true}") boolean indexEnabled,
+            ReservationMetrics metrics
+    ) {
         this.repository = repository;
+        this.index = index;
+        this.indexEnabled = indexEnabled;
+        this.metrics = metrics;
     }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpIndex() {
+        if (!indexEnabled) return;
+        long started = System.nanoTime();
+        index.rebuild(() -> repository.findIntervalsByStatus(ReservationStatus.APPROVED));
+        log.info("room interval index warmed up in {} ms",
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
     public boolean isReservationAvailable(
             Long roomId,
             LocalDate startDate,
@@ -25,14 +59,215 @@ public class ReservationAvailabilityService {
         if(!endDate.isAfter(startDate)){
             throw new IllegalArgumentException("start should to be before end");
         }
+        if (isIndexReady()) {
+            boolean available = !index.hasConflict(roomId, startDate, endDate);
+            metrics.availabilityChecked(ReservationMetrics.SOURCE_INDEX, available);
+            if (available) return true;
+            log.info("conflict with ids = {}", index.findConflicts(roomId, startDate, endDate));
+            return false;
+        }
+        return hasNoConflictsInDatabase(roomId, startDate, endDate);
+    }
+
+    public boolean isReservationAvailableInDatabase(
+            Long roomId,
+            LocalDate startDate,
+            LocalDate endDate
+    ){
+        if(!endDate.isAfter(startDate)){
+            throw new IllegalArgumentException("start should to be before end");
+        }
+        return hasNoConflictsInDatabase(roomId, startDate, endDate);
+    }
+
+    public List<AvailabilityStatus> checkAvailability(List<CheckAvailabilityRequest> requests) {
+        for (var request : requests) {
+            if (!request.endDate().isAfter(request.startDate())) {
+                throw new IllegalArgumentException("start should to be before end");
+            }
+        }
+        if (isIndexReady()) {
+            return requests.stream()
+                    .map(request -> toStatus(ReservationMetrics.SOURCE_INDEX, !index.hasConflict(
+                            request.roomId(), request.startDate(), request.endDate())))
+                    .toList();
+        }
+
+        var roomIds = requests.stream().map(CheckAvailabilityRequest::roomId).collect(Collectors.toSet());
+        var from = requests.stream().map(CheckAvailabilityRequest::startDate).min(LocalDate::compareTo).orElseThrow();
+        var to = requests.stream().map(CheckAvailabilityRequest::endDate).max(LocalDate::compareTo).orElseThrow();
+        Map<Long, RoomIntervals> approved = repository.findIntervalsInRange(roomIds, from, to, ReservationStatus.APPROVED)
+                .stream()
+                .collect(Collectors.groupingBy(
+                        ReservationInterval::roomId,
+                        Collectors.collectingAndThen(Collectors.toList(), RoomIntervals::of)));
+        return requests.stream()
+                .map(request -> toStatus(ReservationMetrics.SOURCE_DATABASE, !approved.getOrDefault(request.roomId(), RoomIntervals.EMPTY).hasConflict(
+                        (int) request.startDate().toEpochDay(),
+                        (int) request.endDate().toEpochDay())))
+                .toList();
+    }
+
+    public OccupancyCalendar occupancy(List<Long> roomIds, LocalDate startDate, LocalDate endDate) {
+        if(!endDate.isAfter(startDate)){
+            throw new IllegalArgumentException("start should to be before end");
+        }
+        if (startDate.plusDays(MAX_CALENDAR_DAYS).isBefore(endDate)) {
+            throw new IllegalArgumentException("calendar window should not exceed " + MAX_CALENDAR_DAYS + " days");
+        }
+        var distinctRoomIds = roomIds.stream().distinct().toList();
+        List<RoomOccupancy> rooms;
+        if (isIndexReady()) {
+            rooms = distinctRoomIds.stream()
+                    .map(roomId -> new RoomOccupancy(roomId, index.busyRuns(roomId, startDate, endDate)))
+                    .toList();
+        } else {
+            Map<Long, RoomIntervals> approved = repository.findIntervalsInRange(
+                            distinctRoomIds, startDate, endDate, ReservationStatus.APPROVED)
+                    .stream()
+                    .collect(Collectors.groupingBy(
+                            ReservationInterval::roomId,
+                            Collectors.collectingAndThen(Collectors.toList(), RoomIntervals::of)));
+            int from = (int) startDate.toEpochDay();
+            int to = (int) endDate.toEpochDay();
+            rooms = distinctRoomIds.stream()
+                    .map(roomId -> new RoomOccupancy(
+                            roomId,
+                            approved.getOrDefault(roomId, RoomIntervals.EMPTY).busyRuns(from, to)))
+                    .toList();
+        }
+        return new OccupancyCalendar(startDate, endDate, rooms);
+    }
+
+    /**
+     * Checks the stay and, in the same pass, finds up to {@code limit} free windows of the same
+     * length for that room within {@value #SUGGESTION_SEARCH_DAYS} days around it (never in the past),
+     * and which of {@code alternativeRoomIds} are free for the requested dates. Gaps are searched in
+     * the room's busy runs, taken from the interval index or from one range query over all rooms.
+     */
+    public AlternativeSuggestions suggestAlternatives(
+            Long roomId,
+            LocalDate startDate,
+            LocalDate endDate,
+            int limit,
+            List<Long> alternativeRoomIds
+    ){
+        if(!endDate.isAfter(startDate)){
+            throw new IllegalArgumentException("start should to be before end");
+        }
+        int length = (int) ChronoUnit.DAYS.between(startDate, endDate);
+        if (length > MAX_CALENDAR_DAYS) {
+            throw new IllegalArgumentException("stay should not exceed " + MAX_CALENDAR_DAYS + " days");
+        }
+        var from = startDate.minusDays(SUGGESTION_SEARCH_DAYS);
+        var to = endDate.plusDays(SUGGESTION_SEARCH_DAYS);
+        var candidates = alternativeRoomIds.stream()
+                .filter(candidate -> !candidate.equals(roomId))
+                .distinct()
+                .toList();
+
+        String source;
+        int[] busy;
+        List<Long> freeRoomIds;
+        if (isIndexReady()) {
+            source = ReservationMetrics.SOURCE_INDEX;
+            busy = index.busyRuns(roomId, from, to);
+            freeRoomIds = candidates.stream()
+                    .filter(candidate -> !index.hasConflict(candidate, startDate, endDate))
+                    .toList();
+        } else {
+            source = ReservationMetrics.SOURCE_DATABASE;
+            var roomIds = new ArrayList<Long>(candidates.size() + 1);
+            roomIds.add(roomId);
+            roomIds.addAll(candidates);
+            Map<Long, RoomIntervals> approved = repository.findIntervalsInRange(
+                            roomIds, from, to, ReservationStatus.APPROVED)
+                    .stream()
+                    .collect(Collectors.groupingBy(
+                            ReservationInterval::roomId,
+                            Collectors.collectingAndThen(Collectors.toList(), RoomIntervals::of)));
+            int start = (int) startDate.toEpochDay();
+            int end = (int) endDate.toEpochDay();
+            busy = approved.getOrDefault(roomId, RoomIntervals.EMPTY)
+                    .busyRuns((int) from.toEpochDay(), (int) to.toEpochDay());
+            freeRoomIds = candidates.stream()
+                    .filter(candidate -> !approved.getOrDefault(candidate, RoomIntervals.EMPTY).hasConflict(start, end))
+                    .toList();
+        }
+
+        int span = (int) ChronoUnit.DAYS.between(from, to);
+        int requested = SUGGESTION_SEARCH_DAYS;
+        int earliest = (int) Math.max(0, ChronoUnit.DAYS.between(from, LocalDate.now()));
+        var windows = nearestFreeStarts(busy, span, length, requested, earliest, limit).stream()
+                .map(offset -> new DateWindow(from.plusDays(offset), from.plusDays(offset + length)))
+                .toList();
+        boolean available = !overlaps(busy, requested, requested + length);
+        return new AlternativeSuggestions(roomId, startDate, endDate, toStatus(source, available), windows, freeRoomIds);
+    }
+
+    public void markApproved(Long id, Long roomId, LocalDate startDate, LocalDate endDate) {
+        if (indexEnabled) index.add(id, roomId, startDate, endDate);
+    }
+
+    public void markReleased(Long id, Long roomId) {
+        if (indexEnabled) index.remove(id, roomId);
+    }
+
+    private boolean hasNoConflictsInDatabase(Long roomId, LocalDate startDate, LocalDate endDate) {
         List<Long> conflictingIds = repository.findConflictReservationIds(
                 roomId,
                 startDate,
                 endDate,
                 ReservationStatus.APPROVED
         );
+        metrics.availabilityChecked(ReservationMetrics.SOURCE_DATABASE, conflictingIds.isEmpty());
         if(conflictingIds.isEmpty()) return true;
         log.info("conflict with ids = {}",conflictingIds);
         return false;
     }
+
+    /**
+     * Offsets of the {@code limit} free starts closest to {@code requested}, earlier first on ties.
+     * Each gap between busy runs contributes at most {@code limit} starts on either side of the
+     * point nearest to {@code requested}, so the work is bounded by the number of gaps.
+     */
+    static List<Integer> nearestFreeStarts(int[] busy, int span, int length, int requested, int earliest, int limit) {
+        var starts = new ArrayList<Integer>();
+        int gapStart = 0;
+        for (int i = 0; i <= busy.length; i += 2) {
+            int gapEnd = i < busy.length ? busy[i] : span;
+            int first = Math.max(gapStart, earliest);
+            int last = gapEnd - length;
+            if (first <= last) {
+                int nearest = Math.clamp(requested, first, last);
+                for (int offset = Math.max(first, nearest - limit); offset <= Math.min(last, nearest + limit); offset++) {
+                    starts.add(offset);
+                }
+            }
+            if (i < busy.length) {
+                gapStart = busy[i] + busy[i + 1];
+            }
+        }
+        return starts.stream()
+                .sorted(Comparator.<Integer>comparingInt(offset -> Math.abs(offset - requested))
+                        .thenComparingInt(offset -> offset))
+                .limit(limit)
+                .toList();
+    }
+
+    private static boolean overlaps(int[] busy, int start, int end) {
+        for (int i = 0; i < busy.length; i += 2) {
+            if (busy[i] < end && start < busy[i] + busy[i + 1]) return true;
+        }
+        return false;
+    }
+
+    private AvailabilityStatus toStatus(String source, boolean isAvailable) {
+        metrics.availabilityChecked(source, isAvailable);
+        return isAvailable ? AvailabilityStatus.AVAILABLE : AvailabilityStatus.RESERVED;
+    }
+
+    private boolean isIndexReady() {
+        return indexEnabled && index.isReady();
+    }
 }
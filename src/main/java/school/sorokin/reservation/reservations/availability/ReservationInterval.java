@@ -0,0 +1,11 @@
+package school.sorokin.reservation.reservations.availability;
+
+import java.time.LocalDate;
+
+public record ReservationInterval(
+        Long id,
+        Long roomId,
+        LocalDate startDate,
+        LocalDate endDate
+) {
+}
@@ -0,0 +1,118 @@
+package school.sorokin.reservation.reservations.availability;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of APPROVED reservations keyed by roomId. Reads are lock-free,
+ * every update replaces the room entry with a new immutable {@link RoomIntervals}.
+ * Updates that arrive while {@link #rebuild} loads a snapshot are replayed on top of it.
+ */
+@Component
+public class RoomIntervalIndex {
+    private volatile Map<Long, RoomIntervals> rooms = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private boolean rebuilding;
+    private final Queue<Runnable> updatesDuringRebuild = new ConcurrentLinkedQueue<>();
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild(Supplier<? extends Collection<ReservationInterval>> loader) {
+        rebuildLock.writeLock().lock();
+        try {
+            rebuilding = true;
+            updatesDuringRebuild.clear();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+
+        Map<Long, RoomIntervals> loaded = new ConcurrentHashMap<>();
+        try {
+            loader.get().stream()
+                    .collect(Collectors.groupingBy(ReservationInterval::roomId))
+                    .forEach((roomId, intervals) -> loaded.put(roomId, RoomIntervals.of(intervals)));
+        } catch (RuntimeException e) {
+            rebuildLock.writeLock().lock();
+            try {
+                rebuilding = false;
+                updatesDuringRebuild.clear();
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        rebuildLock.writeLock().lock();
+        try {
+            rooms = loaded;
+            updatesDuringRebuild.forEach(Runnable::run);
+            updatesDuringRebuild.clear();
+            rebuilding = false;
+            ready = true;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public void add(Long id, Long roomId, LocalDate startDate, LocalDate endDate) {
+        int start = (int) startDate.toEpochDay();
+        int end = (int) endDate.toEpochDay();
+        update(() -> rooms.compute(roomId, (key, intervals) ->
+                (intervals == null ? RoomIntervals.EMPTY : intervals).with(id, start, end)));
+    }
+
+    public void remove(Long id, Long roomId) {
+        update(() -> rooms.computeIfPresent(roomId, (key, intervals) -> {
+            var remaining = intervals.without(id);
+            return remaining.size() == 0 ? null : remaining;
+        }));
+    }
+
+    public boolean hasConflict(Long roomId, LocalDate startDate, LocalDate endDate) {
+        var intervals = rooms.get(roomId);
+        return intervals != null && intervals.hasConflict(
+                (int) startDate.toEpochDay(),
+                (int) endDate.toEpochDay());
+    }
+
+    public List<Long> findConflicts(Long roomId, LocalDate startDate, LocalDate endDate) {
+        var intervals = rooms.get(roomId);
+        if (intervals == null) {
+            return List.of();
+        }
+        return intervals.findConflicts(
+                (int) startDate.toEpochDay(),
+                (int) endDate.toEpochDay());
+    }
+
+    public int[] busyRuns(Long roomId, LocalDate startDate, LocalDate endDate) {
+        return rooms.getOrDefault(roomId, RoomIntervals.EMPTY).busyRuns(
+                (int) startDate.toEpochDay(),
+                (int) endDate.toEpochDay());
+    }
+
+    private void update(Runnable update) {
+        rebuildLock.readLock().lock();
+        try {
+            update.run();
+            if (rebuilding) {
+                updatesDuringRebuild.add(update);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+}
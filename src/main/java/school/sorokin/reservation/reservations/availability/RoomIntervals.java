@@ -0,0 +1,160 @@
+package school.sorokin.reservation.reservations.availability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, start-sorted interval list of one room. Dates are stored as epoch days,
+ * the end is exclusive. {@code maxEnds[i]} is the max end among intervals {@code 0..i},
+ * so an overlap check is a single binary search.
+ */
+final class RoomIntervals {
+    static final RoomIntervals EMPTY = new RoomIntervals(new long[0], new int[0], new int[0]);
+
+    private final long[] ids;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] maxEnds;
+
+    private RoomIntervals(long[] ids, int[] starts, int[] ends) {
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new int[ends.length];
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < ends.length; i++) {
+            max = Math.max(max, ends[i]);
+            maxEnds[i] = max;
+        }
+    }
+
+    static RoomIntervals of(List<ReservationInterval> intervals) {
+        var sorted = intervals.stream()
+                .sorted((a, b) -> a.startDate().compareTo(b.startDate()))
+                .toList();
+        long[] ids = new long[sorted.size()];
+        int[] starts = new int[sorted.size()];
+        int[] ends = new int[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            var interval = sorted.get(i);
+            ids[i] = interval.id();
+            starts[i] = (int) interval.startDate().toEpochDay();
+            ends[i] = (int) interval.endDate().toEpochDay();
+        }
+        return new RoomIntervals(ids, starts, ends);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    boolean hasConflict(int start, int end) {
+        int candidates = firstStartNotBefore(end);
+        return candidates > 0 && maxEnds[candidates - 1] > start;
+    }
+
+    List<Long> findConflicts(int start, int end) {
+        int candidates = firstStartNotBefore(end);
+        if (candidates == 0 || maxEnds[candidates - 1] <= start) {
+            return List.of();
+        }
+        var conflicts = new ArrayList<Long>();
+        for (int i = 0; i < candidates; i++) {
+            if (ends[i] > start) {
+                conflicts.add(ids[i]);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Busy runs of {@code [from, to)} relative to {@code from}, see {@link RoomOccupancy}.
+     * One pass over the start-sorted intervals that begin before {@code to}.
+     */
+    int[] busyRuns(int from, int to) {
+        int candidates = firstStartNotBefore(to);
+        int[] runs = new int[8];
+        int count = 0;
+        int runStart = 0;
+        int runEnd = -1;
+        for (int i = 0; i < candidates; i++) {
+            if (ends[i] <= from) {
+                continue;
+            }
+            int start = Math.max(starts[i], from) - from;
+            int end = Math.min(ends[i], to) - from;
+            if (start <= runEnd) {
+                runEnd = Math.max(runEnd, end);
+                continue;
+            }
+            if (runEnd >= 0) {
+                if (count + 2 > runs.length) runs = Arrays.copyOf(runs, runs.length * 2);
+                runs[count++] = runStart;
+                runs[count++] = runEnd - runStart;
+            }
+            runStart = start;
+            runEnd = end;
+        }
+        if (runEnd >= 0) {
+            if (count + 2 > runs.length) runs = Arrays.copyOf(runs, runs.length * 2);
+            runs[count++] = runStart;
+            runs[count++] = runEnd - runStart;
+        }
+        return Arrays.copyOf(runs, count);
+    }
+
+    RoomIntervals with(long id, int start, int end) {
+        var base = without(id);
+        int n = base.ids.length;
+        int pos = base.firstStartNotBefore(start);
+        long[] newIds = new long[n + 1];
+        int[] newStarts = new int[n + 1];
+        int[] newEnds = new int[n + 1];
+        System.arraycopy(base.ids, 0, newIds, 0, pos);
+        System.arraycopy(base.starts, 0, newStarts, 0, pos);
+        System.arraycopy(base.ends, 0, newEnds, 0, pos);
+        newIds[pos] = id;
+        newStarts[pos] = start;
+        newEnds[pos] = end;
+        System.arraycopy(base.ids, pos, newIds, pos + 1, n - pos);
+        System.arraycopy(base.starts, pos, newStarts, pos + 1, n - pos);
+        System.arraycopy(base.ends, pos, newEnds, pos + 1, n - pos);
+        return new RoomIntervals(newIds, newStarts, newEnds);
+    }
+
+    RoomIntervals without(long id) {
+        int pos = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                pos = i;
+                break;
+            }
+        }
+        if (pos < 0) {
+            return this;
+        }
+        int n = ids.length;
+        long[] newIds = Arrays.copyOf(ids, n - 1);
+        int[] newStarts = Arrays.copyOf(starts, n - 1);
+        int[] newEnds = Arrays.copyOf(ends, n - 1);
+        System.arraycopy(ids, pos + 1, newIds, pos, n - pos - 1);
+        System.arraycopy(starts, pos + 1, newStarts, pos, n - pos - 1);
+        System.arraycopy(ends, pos + 1, newEnds, pos, n - pos - 1);
+        return new RoomIntervals(newIds, newStarts, newEnds);
+    }
+
+    private int firstStartNotBefore(int day) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
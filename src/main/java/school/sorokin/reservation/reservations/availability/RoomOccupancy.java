@@ -0,0 +1,11 @@
+package school.sorokin.reservation.reservations.availability;
+
+/**
+ * Busy days of one room as run-length pairs {@code [offset, length, offset, length, ...]},
+ * offsets in days from the calendar start. Runs are sorted, merged and never touch.
+ */
+public record RoomOccupancy(
+        Long roomId,
+        int[] busy
+) {
+}
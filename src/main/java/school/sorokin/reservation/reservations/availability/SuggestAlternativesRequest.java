@@ -0,0 +1,24 @@
+package school.sorokin.reservation.reservations.availability;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record SuggestAlternativesRequest(
+        @NotNull
+        Long roomId,
+        @NotNull
+        LocalDate startDate,
+        @NotNull
+        LocalDate endDate,
+        @Min(1)
+        @Max(ReservationAvailabilityService.MAX_SUGGESTIONS)
+        Integer limit,
+        @Size(max = 1000)
+        List<@NotNull Long> alternativeRoomIds
+) {
+}
@@ -0,0 +1,45 @@
+package school.sorokin.reservation.reservations.changes;
+
+import school.sorokin.reservation.reservations.ReservationStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Committed status transition of a reservation as sent between nodes. The wire form is
+ * {@code origin:id:roomId:STATUS:startEpochDay:endEpochDay}, well below the 8000-byte NOTIFY limit.
+ * A {@code null} status, sent as {@code ARCHIVED}, means the reservation left the live table.
+ */
+public record ReservationChange(
+        String origin,
+        Long id,
+        Long roomId,
+        ReservationStatus status,
+        LocalDate startDate,
+        LocalDate endDate
+) {
+    static final String ARCHIVED = "ARCHIVED";
+
+    String encode() {
+        return String.join(":",
+                origin,
+                id.toString(),
+                roomId.toString(),
+                status == null ? ARCHIVED : status.name(),
+                Long.toString(startDate.toEpochDay()),
+                Long.toString(endDate.toEpochDay()));
+    }
+
+    static ReservationChange decode(String payload) {
+        var parts = payload.split(":");
+        if (parts.length != 6) {
+            throw new IllegalArgumentException("malformed reservation change: " + payload);
+        }
+        return new ReservationChange(
+                parts[0],
+                Long.valueOf(parts[1]),
+                Long.valueOf(parts[2]),
+                parts[3].equals(ARCHIVED) ? null : ReservationStatus.valueOf(parts[3]),
+                LocalDate.ofEpochDay(Long.parseLong(parts[4])),
+                LocalDate.ofEpochDay(Long.parseLong(parts[5])));
+    }
+}
@@ -0,0 +1,137 @@
+package school.sorokin.reservation.reservations.changes;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import school.sorokin.reservation.reservations.ReservationCache;
+import school.sorokin.reservation.reservations.ReservationStatus;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Applies changes announced by other instances to the local reservation cache and
+ * availability index. Listens on its own connection, outside the pool. Notifications
+ * sent while it was disconnected are lost, so after a reconnect the cache is dropped
+ * and the index is rebuilt from the database.
+ */
+@Component
+public class ReservationChangeListener implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(ReservationChangeListener.class);
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long RECONNECT_DELAY_MS = 1_000;
+
+    private final ReservationChangeNotifier notifier;
+    private final DataSourceProperties dataSourceProperties;
+    private final ReservationCache cache;
+    private final ReservationAvailabilityService availabilityService;
+    private volatile boolean running;
+    private Thread thread;
+
+    public ReservationChangeListener(
+            ReservationChangeNotifier notifier,
+            DataSourceProperties dataSourceProperties,
+            ReservationCache cache,
+            ReservationAvailabilityService availabilityService
+    ) {
+        this.notifier = notifier;
+        this.dataSourceProperties = dataSourceProperties;
+        this.cache = cache;
+        this.availabilityService = availabilityService;
+    }
+
+    @Override
+    public void start() {
+        if (!notifier.isEnabled()) return;
+        running = true;
+        thread = Thread.ofPlatform()
+                .daemon()
+                .name("reservation-change-listener")
+                .start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(POLL_TIMEOUT_MS * 4L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    void apply(ReservationChange change) {
+        cache.invalidate(change.id());
+        if (change.status() == ReservationStatus.APPROVED) {
+            availabilityService.markApproved(change.id(), change.roomId(), change.startDate(), change.endDate());
+        } else {
+            availabilityService.markReleased(change.id(), change.roomId());
+        }
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            try (var connection = connect()) {
+                if (reconnect) {
+                    log.info("reconnected to {}, resynchronizing local state", ReservationChangeNotifier.CHANNEL);
+                    cache.invalidateAll();
+                    availabilityService.warmUpIndex();
+                }
+                receive(connection.unwrap(PGConnection.class));
+            } catch (SQLException | RuntimeException e) {
+                if (!running) return;
+                log.warn("lost {} subscription, reconnecting: {}", ReservationChangeNotifier.CHANNEL, e.getMessage());
+            }
+            reconnect = true;
+            try {
+                Thread.sleep(RECONNECT_DELAY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        var connection = DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+        try (var statement = connection.createStatement()) {
+            statement.execute("listen " + ReservationChangeNotifier.CHANNEL);
+        }
+        return connection;
+    }
+
+    private void receive(PGConnection connection) throws SQLException {
+        while (running) {
+            var notifications = connection.getNotifications(POLL_TIMEOUT_MS);
+            if (notifications == null) continue;
+            for (var notification : notifications) {
+                ReservationChange change;
+                try {
+                    change = ReservationChange.decode(notification.getParameter());
+                } catch (IllegalArgumentException e) {
+                    log.warn("skipping notification: {}", e.getMessage());
+                    continue;
+                }
+                if (change.origin().equals(notifier.nodeId())) continue;
+                apply(change);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package school.sorokin.reservation.reservations.changes;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.stereotype.Component;
+import school.sorokin.reservation.reservations.ReservationStatus;
+import school.sorokin.reservation.reservations.availability.ReservationInterval;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Announces reservation changes to the other application instances with {@code pg_notify}.
+ * Must be called inside the writing transaction: Postgres delivers the notification only
+ * when that transaction commits and drops it on rollback.
+ */
+@Component
+public class ReservationChangeNotifier {
+    static final String CHANNEL = "reservation_changes";
+
+    private final boolean enabled;
+    private final JdbcOperations jdbcOperations;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public ReservationChangeNotifier(
+            @Value("${reservation.coherence.enabled:false}") boolean enabled,
+            JdbcOperations jdbcOperations
+    ) {
+        this.enabled = enabled;
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    public void publish(Long id, Long roomId, ReservationStatus status, LocalDate startDate, LocalDate endDate) {
+        if (!enabled) return;
+        var change = new ReservationChange(nodeId, id, roomId, status, startDate, endDate);
+        jdbcOperations.query("select pg_notify(?, ?)", rs -> null, CHANNEL, change.encode());
+    }
+
+    public void publishAll(ReservationStatus status, Collection<ReservationInterval> intervals) {
+        send(status, intervals);
+    }
+
+    /**
+     * Announces reservations moved to the archive: other nodes drop them from their cache and index.
+     */
+    public void publishArchived(Collection<ReservationInterval> intervals) {
+        send(null, intervals);
+    }
+
+    private void send(ReservationStatus status, Collection<ReservationInterval> intervals) {
+        if (!enabled || intervals.isEmpty()) return;
+        String[] payloads = intervals.stream()
+                .map(interval -> new ReservationChange(nodeId, interval.id(), interval.roomId(), status,
+                        interval.startDate(), interval.endDate()).encode())
+                .toArray(String[]::new);
+        jdbcOperations.query("select pg_notify(?, p) from unnest(?::text[]) as p",
+                rs -> null, CHANNEL, payloads);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+}
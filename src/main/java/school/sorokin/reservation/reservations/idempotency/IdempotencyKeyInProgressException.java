@@ -0,0 +1,10 @@
+package school.sorokin.reservation.reservations.idempotency;
+
+/**
+ * A request with the same {@code Idempotency-Key} is still running on another instance.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
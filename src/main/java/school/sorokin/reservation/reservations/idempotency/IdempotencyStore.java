@@ -0,0 +1,207 @@
+package school.sorokin.reservation.reservations.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import school.sorokin.reservation.reservations.Reservation;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers successful responses by {@code Idempotency-Key}, so a retried request returns the
+ * original reservation instead of running again. Responses live in a bounded local cache; with
+ * {@code reservation.idempotency.shared=true} keys are also claimed in {@code idempotency_keys},
+ * so a retry that lands on another instance is answered from there; while the first request is
+ * still running there, the retry waits up to {@code wait-timeout} and then gets a conflict. A claim
+ * without a response older than {@code in-progress-timeout} is considered abandoned. Failed requests
+ * are not remembered and may be retried with the same key.
+ */
+@Component
+public class IdempotencyStore implements MeterBinder {
+    public static final String HEADER = "Idempotency-Key";
+    static final int MAX_KEY_LENGTH = 255;
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final Cache<String, Entry> responses;
+    private final Duration ttl;
+    private final boolean shared;
+    private final Duration waitTimeout;
+    private final Duration inProgressTimeout;
+    private final JdbcOperations jdbcOperations;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyStore(
+            @Value("${reservation.idempotency.max-size:100000}") long maxSize,
+            @Value("${reservation.idempotency.ttl:24h}") Duration ttl,
+            @Value("${reservation.idempotency.shared:false}") boolean shared,
+            @Value("${reservation.idempotency.wait-timeout:5s}") Duration waitTimeout,
+            @Value("${reservation.idempotency.in-progress-timeout:30s}") Duration inProgressTimeout,
+            JdbcOperations jdbcOperations,
+            ObjectMapper objectMapper
+    ) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.ttl = ttl;
+        this.shared = shared;
+        this.waitTimeout = waitTimeout;
+        this.inProgressTimeout = inProgressTimeout;
+        this.jdbcOperations = jdbcOperations;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Runs {@code action} once per {@code operation} and {@code key}. Repeats with the same
+     * {@code fingerprint} get the first result (concurrent ones wait for it), repeats with a
+     * different one are rejected.
+     */
+    public Reservation execute(String operation, String key, String fingerprint, Supplier<Reservation> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " should be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        var storeKey = operation + ":" + key;
+        var entry = new Entry(fingerprint, new CompletableFuture<>());
+        var existing = responses.get(storeKey, ignored -> entry);
+        if (existing != entry) {
+            checkFingerprint(key, existing.fingerprint(), fingerprint);
+            return await(existing.response());
+        }
+        try {
+            var response = shared ? executeShared(storeKey, key, fingerprint, action) : action.get();
+            entry.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            responses.asMap().remove(storeKey, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Reservation executeShared(String storeKey, String key, String fingerprint, Supplier<Reservation> action) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            if (claim(storeKey, fingerprint)) {
+                Reservation response;
+                try {
+                    response = action.get();
+                } catch (RuntimeException e) {
+                    jdbcOperations.update("""
+                            delete from idempotency_keys
+                            where idempotency_key = ? and response is null
+                            """, storeKey);
+                    throw e;
+                }
+                jdbcOperations.update("update idempotency_keys set response = ? where idempotency_key = ?",
+                        toJson(response), storeKey);
+                return response;
+            }
+            var stored = jdbcOperations.query("""
+                            select fingerprint, response from idempotency_keys
+                            where idempotency_key = ?
+                            """,
+                    (rs, rowNum) -> new StoredResponse(rs.getString("fingerprint"), rs.getString("response")),
+                    storeKey);
+            if (stored.isEmpty()) continue;
+            checkFingerprint(key, stored.getFirst().fingerprint(), fingerprint);
+            if (stored.getFirst().response() != null) {
+                return fromJson(stored.getFirst().response());
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IdempotencyKeyInProgressException(
+                        "request with " + HEADER + " " + key + " is still in progress");
+            }
+            sleep();
+        }
+    }
+
+    /**
+     * Inserts the claim, or takes over one that expired or was abandoned while in progress.
+     */
+    private boolean claim(String storeKey, String fingerprint) {
+        return jdbcOperations.update("""
+                        insert into idempotency_keys (idempotency_key, fingerprint) values (?, ?)
+                        on conflict (idempotency_key) do update
+                            set fingerprint = excluded.fingerprint, response = null, claimed_at = now()
+                            where idempotency_keys.claimed_at < now() - make_interval(secs => ?)
+                               or (idempotency_keys.response is null
+                                   and idempotency_keys.claimed_at < now() - make_interval(secs => ?))
+                        """,
+                storeKey, fingerprint, (double) ttl.toSeconds(), (double) inProgressTimeout.toSeconds()) == 1;
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        if (!shared) return;
+        int purged = jdbcOperations.update(
+                "delete from idempotency_keys where claimed_at < now() - make_interval(secs => ?)",
+                (double) ttl.toSeconds());
+        if (purged > 0) log.info("purged {} expired idempotency keys", purged);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, responses, "idempotency");
+    }
+
+    private static void checkFingerprint(String key, String stored, String requested) {
+        if (!stored.equals(requested)) {
+            throw new IllegalArgumentException(HEADER + " " + key + " was already used with a different request");
+        }
+    }
+
+    private static Reservation await(CompletableFuture<Reservation> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private String toJson(Reservation response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("cannot serialize idempotent response", e);
+        }
+    }
+
+    private Reservation fromJson(String response) {
+        try {
+            return objectMapper.readValue(response, Reservation.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("cannot read stored idempotent response", e);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for idempotent request", e);
+        }
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<Reservation> response) {
+    }
+
+    private record StoredResponse(String fingerprint, String response) {
+    }
+}
@@ -0,0 +1,76 @@
+package school.sorokin.reservation.reservations.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+import java.time.Duration;
+
+/**
+ * R2DBC pool and repositories for the {@code /reactive} endpoints. Boot's own R2DBC
+ * auto-configuration is excluded: its transaction manager would sit next to the JPA one and
+ * make every {@code @Transactional} ambiguous. The reactive side only reads, so it needs none.
+ * Without {@code reservation.reactive.url} the URL is derived from {@code spring.datasource.url}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "reservation.reactive", name = "enabled", havingValue = "true")
+@EnableR2dbcRepositories(basePackageClasses = ReactiveReservationRepository.class)
+public class ReactiveConfiguration {
+
+    @Bean
+    ReactiveConnectionPool reactiveConnectionPool(
+            @Value("${reservation.reactive.url:}") String url,
+            @Value("${spring.datasource.url}") String jdbcUrl,
+            @Value("${reservation.reactive.username:${spring.datasource.username}}") String username,
+            @Value("${reservation.reactive.password:${spring.datasource.password}}") String password,
+            @Value("${reservation.reactive.pool.max-size:20}") int maxSize,
+            @Value("${reservation.reactive.pool.max-acquire-time:5s}") Duration maxAcquireTime,
+            @Value("${reservation.reactive.fetch-size:500}") int fetchSize
+    ) {
+        return connectionPool(url.isBlank() ? toR2dbcUrl(jdbcUrl) : url,
+                username, password, maxSize, maxAcquireTime, fetchSize);
+    }
+
+    @Bean
+    R2dbcEntityTemplate r2dbcEntityTemplate(ReactiveConnectionPool reactiveConnectionPool) {
+        return new R2dbcEntityTemplate(reactiveConnectionPool.connectionFactory());
+    }
+
+    static ReactiveConnectionPool connectionPool(
+            String url,
+            String username,
+            String password,
+            int maxSize,
+            Duration maxAcquireTime,
+            int fetchSize
+    ) {
+        var options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .option(PostgresqlConnectionFactoryProvider.FETCH_SIZE, fetchSize)
+                .build();
+        return new ReactiveConnectionPool(new ConnectionPool(
+                ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                        .name(ReactiveConnectionPool.NAME)
+                        .maxSize(maxSize)
+                        .initialSize(0)
+                        .maxAcquireTime(maxAcquireTime)
+                        .build()));
+    }
+
+    static String toR2dbcUrl(String jdbcUrl) {
+        if (!jdbcUrl.startsWith("jdbc:postgresql:")) {
+            throw new IllegalStateException("reservation.reactive.url is required for " + jdbcUrl);
+        }
+        int query = jdbcUrl.indexOf('?');
+        return "r2dbc:" + jdbcUrl.substring("jdbc:".length(), query < 0 ? jdbcUrl.length() : query);
+    }
+}
@@ -0,0 +1,37 @@
+package school.sorokin.reservation.reservations.reactive;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+
+/**
+ * Holds the R2DBC pool without exposing it as a {@link ConnectionFactory} bean: Boot's
+ * DataSource auto-configuration backs off as soon as one exists, which would take JPA down with it.
+ */
+final class ReactiveConnectionPool implements MeterBinder, DisposableBean {
+    static final String NAME = "reactive";
+
+    private final ConnectionPool pool;
+
+    ReactiveConnectionPool(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    ConnectionFactory connectionFactory() {
+        return pool;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ConnectionPoolMetrics(pool, NAME, Tags.empty()).bindTo(registry);
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+}
@@ -0,0 +1,94 @@
+package school.sorokin.reservation.reservations.reactive;
+
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationSearchFilter;
+import school.sorokin.reservation.reservations.availability.AvailabilityStatus;
+import school.sorokin.reservation.reservations.availability.CheckAvailabilityRequest;
+import school.sorokin.reservation.reservations.availability.CheckAvailabilityResponse;
+
+import java.util.List;
+
+/**
+ * Reactive twins of the read endpoints of {@code ReservationController} and
+ * {@code ReservationAvailabilityController}. The request thread is released while R2DBC runs the query.
+ */
+@RestController
+@RequestMapping("/reactive/reservation")
+@ConditionalOnProperty(prefix = "reservation.reactive", name = "enabled", havingValue = "true")
+public class ReactiveReservationController {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveReservationController.class);
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final ReactiveReservationService reservationService;
+
+    public ReactiveReservationController(ReactiveReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Reservation> getReservationById(
+            @PathVariable("id") Long id
+    ) {
+        log.debug("called reactive getReservationById");
+        return reservationService.getReservationById(id);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Reservation>>> getAllReservations(
+            @RequestParam(name = "roomId", required = false) Long roomId,
+            @RequestParam(name = "userId", required = false) Long userId,
+            @RequestParam(name = "pageSize", required = false) Integer pageSize,
+            @RequestParam(name = "pageNumber", required = false) Integer pageNumber,
+            @RequestParam(name = "cursor", required = false) String cursor
+    ) {
+        log.debug("called reactive getAllReservations");
+        var filter = new ReservationSearchFilter(roomId, userId, pageSize, pageNumber, cursor);
+        if (cursor == null) {
+            return reservationService.searchAllByFilter(filter)
+                    .collectList()
+                    .map(ResponseEntity::ok);
+        }
+        return reservationService.searchAllByCursor(filter)
+                .map(page -> {
+                    var response = ResponseEntity.ok();
+                    if (page.nextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                    }
+                    return response.body(page.reservations());
+                });
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Reservation> exportReservations(
+            @RequestParam(name = "roomId", required = false) Long roomId,
+            @RequestParam(name = "userId", required = false) Long userId
+    ) {
+        log.debug("called reactive exportReservations roomId={}, userId={}", roomId, userId);
+        return reservationService.exportByFilter(new ReservationSearchFilter(roomId, userId, null, null, null));
+    }
+
+    @PostMapping("/availability/check")
+    public Mono<CheckAvailabilityResponse> checkAvailability(
+            @Valid CheckAvailabilityRequest request
+    ) {
+        log.debug("called reactive checkAvailability request = {}", request);
+        return reservationService.isReservationAvailable(request.roomId(), request.startDate(), request.endDate())
+                .map(isAvailable -> isAvailable
+                        ? new CheckAvailabilityResponse("room available to reservation", AvailabilityStatus.AVAILABLE)
+                        : new CheckAvailabilityResponse("room not available to reservation", AvailabilityStatus.RESERVED));
+    }
+}
@@ -0,0 +1,33 @@
+package school.sorokin.reservation.reservations.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import school.sorokin.reservation.reservations.ReservationStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Non-blocking counterpart of the read queries of
+ * {@link school.sorokin.reservation.reservations.ReservationRepository}.
+ */
+interface ReactiveReservationRepository extends Repository<ReservationRow, Long>, ReactiveReservationSearchRepository {
+
+    Mono<ReservationRow> findById(Long id);
+
+    @Query("""
+            select id from reservations
+            where room_id = :roomId
+            and start_date < :endDate
+            and :startDate < end_date
+            and status = :status
+            """)
+    Flux<Long> findConflictReservationIds(
+            @Param("roomId") Long roomId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("status") ReservationStatus status
+    );
+}
@@ -0,0 +1,16 @@
+package school.sorokin.reservation.reservations.reactive;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Listings filtered by room and/or client; only the filters that are set become predicates,
+ * as in {@link school.sorokin.reservation.reservations.ReservationSearchRepository}.
+ */
+interface ReactiveReservationSearchRepository {
+
+    Flux<ReservationRow> searchAllByFilter(Long roomId, Long userId, int limit, long offset);
+
+    Flux<ReservationRow> searchAllByFilterAfter(Long roomId, Long userId, Long lastId, int limit);
+
+    Flux<ReservationRow> streamAllByFilter(Long roomId, Long userId);
+}
@@ -0,0 +1,43 @@
+package school.sorokin.reservation.reservations.reactive;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import reactor.core.publisher.Flux;
+
+class ReactiveReservationSearchRepositoryImpl implements ReactiveReservationSearchRepository {
+    private static final Sort BY_ID = Sort.by("id");
+
+    private final R2dbcEntityOperations entityOperations;
+
+    ReactiveReservationSearchRepositoryImpl(R2dbcEntityOperations entityOperations) {
+        this.entityOperations = entityOperations;
+    }
+
+    @Override
+    public Flux<ReservationRow> searchAllByFilter(Long roomId, Long userId, int limit, long offset) {
+        return select(Query.query(filter(roomId, userId)).sort(BY_ID).limit(limit).offset(offset));
+    }
+
+    @Override
+    public Flux<ReservationRow> searchAllByFilterAfter(Long roomId, Long userId, Long lastId, int limit) {
+        return select(Query.query(filter(roomId, userId).and("id").greaterThan(lastId)).sort(BY_ID).limit(limit));
+    }
+
+    @Override
+    public Flux<ReservationRow> streamAllByFilter(Long roomId, Long userId) {
+        return select(Query.query(filter(roomId, userId)).sort(BY_ID));
+    }
+
+    private Flux<ReservationRow> select(Query query) {
+        return entityOperations.select(ReservationRow.class).matching(query).all();
+    }
+
+    private static Criteria filter(Long roomId, Long userId) {
+        var criteria = Criteria.empty();
+        if (roomId != null) criteria = criteria.and("roomId").is(roomId);
+        if (userId != null) criteria = criteria.and("userId").is(userId);
+        return criteria;
+    }
+}
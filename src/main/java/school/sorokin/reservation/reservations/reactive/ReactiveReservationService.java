@@ -0,0 +1,89 @@
+package school.sorokin.reservation.reservations.reactive;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationCursor;
+import school.sorokin.reservation.reservations.ReservationPage;
+import school.sorokin.reservation.reservations.ReservationSearchFilter;
+import school.sorokin.reservation.reservations.ReservationStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Read paths of {@code ReservationService} and the database check of
+ * {@code ReservationAvailabilityService} over R2DBC. Nothing here blocks a thread while the
+ * query runs; reads always go to the primary and skip the local cache, the interval index and the archive.
+ */
+@Service
+@ConditionalOnProperty(prefix = "reservation.reactive", name = "enabled", havingValue = "true")
+public class ReactiveReservationService {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveReservationService.class);
+
+    private final ReactiveReservationRepository repository;
+
+    ReactiveReservationService(ReactiveReservationRepository repository) {
+        this.repository = repository;
+    }
+
+    public Mono<Reservation> getReservationById(Long id) {
+        return repository.findById(id)
+                .map(ReservationRow::toDomain)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(
+                        "Not found reservation by id = " + id)));
+    }
+
+    public Flux<Reservation> searchAllByFilter(ReservationSearchFilter filter) {
+        int pageSize = filter.checkedPageSize();
+        int pageNumber = filter.checkedPageNumber();
+        return repository.searchAllByFilter(
+                        filter.roomId(),
+                        filter.userId(),
+                        pageSize,
+                        (long) pageSize * pageNumber)
+                .map(ReservationRow::toDomain);
+    }
+
+    public Mono<ReservationPage> searchAllByCursor(ReservationSearchFilter filter) {
+        int pageSize = filter.checkedPageSize();
+        long lastId = ReservationCursor.decode(filter.cursor());
+        return repository.searchAllByFilterAfter(filter.roomId(), filter.userId(), lastId, pageSize + 1)
+                .map(ReservationRow::toDomain)
+                .collectList()
+                .map(reservations -> {
+                    boolean hasNext = reservations.size() > pageSize;
+                    var page = hasNext ? reservations.subList(0, pageSize) : reservations;
+                    var nextCursor = hasNext
+                            ? ReservationCursor.encode(page.get(page.size() - 1).id())
+                            : null;
+                    return new ReservationPage(page, nextCursor);
+                });
+    }
+
+    /**
+     * Rows are pulled from the connection as the subscriber requests them, so a slow client
+     * holds back the query instead of buffering the whole result.
+     */
+    public Flux<Reservation> exportByFilter(ReservationSearchFilter filter) {
+        return repository.streamAllByFilter(filter.roomId(), filter.userId())
+                .map(ReservationRow::toDomain);
+    }
+
+    public Mono<Boolean> isReservationAvailable(Long roomId, LocalDate startDate, LocalDate endDate) {
+        if (!endDate.isAfter(startDate)) {
+            return Mono.error(new IllegalArgumentException("start should to be before end"));
+        }
+        return repository.findConflictReservationIds(roomId, startDate, endDate, ReservationStatus.APPROVED)
+                .collectList()
+                .map(conflictingIds -> {
+                    if (conflictingIds.isEmpty()) return true;
+                    log.info("conflict with ids = {}", conflictingIds);
+                    return false;
+                });
+    }
+}
@@ -0,0 +1,29 @@
+package school.sorokin.reservation.reservations.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only R2DBC view of a {@code reservations} row.
+ */
+@Table("reservations")
+record ReservationRow(
+        @Id
+        Long id,
+        @Column("client_id")
+        Long userId,
+        Long roomId,
+        LocalDate startDate,
+        LocalDate endDate,
+        ReservationStatus status,
+        Long version
+) {
+    Reservation toDomain() {
+        return new Reservation(id, userId, roomId, startDate, endDate, status, version);
+    }
+}
@@ -0,0 +1,28 @@
+package school.sorokin.reservation.startup;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration(proxyBeanMethods = false)
+public class StartupConfiguration {
+
+    /**
+     * With {@code spring.main.lazy-initialization=true} a bean nobody asks for is never created, so its
+     * {@code @Scheduled} jobs (archive, approval queue drain, idempotency purge, replica lag check)
+     * would never start. Those beans stay eager.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter scheduledBeansStayEager() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && AnnotationUtils.isCandidateClass(beanType, Scheduled.class)
+                && !MethodIntrospector.selectMethods(beanType,
+                        (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                                AnnotatedElementUtils.hasAnnotation(method, Scheduled.class) ? true : null)
+                .isEmpty();
+    }
+}
@@ -0,0 +1,114 @@
+package school.sorokin.reservation.startup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import school.sorokin.reservation.reservations.ReservationSearchFilter;
+import school.sorokin.reservation.reservations.ReservationService;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+import school.sorokin.reservation.reservations.availability.ReservationInterval;
+import school.sorokin.reservation.reservations.availability.RoomIntervalIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the read hot paths before the instance reports ready: runners finish before Boot flips
+ * readiness to {@code ACCEPTING_TRAFFIC}. With lazy initialization this also creates the
+ * repositories, the entity manager factory and the pool, so the first real request pays for none of it.
+ * Lookups and listings hit the database (and the availability metrics); the interval index code is
+ * exercised on a private index, the shared one is built afterwards on {@code ApplicationReadyEvent}.
+ * Failures are logged and never block startup. The flag is read at runtime rather than as a bean
+ * condition, because AOT processing fixes conditions at build time.
+ */
+@Component
+public class StartupWarmup implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+    private static final int INDEX_ROOMS = 100;
+
+    private final boolean enabled;
+    private final ReservationService reservationService;
+    private final ReservationAvailabilityService availabilityService;
+    private final ObjectMapper objectMapper;
+    private final int iterations;
+    private final int threads;
+
+    public StartupWarmup(
+            @Value("${reservation.warmup.enabled:false}") boolean enabled,
+            ReservationService reservationService,
+            ReservationAvailabilityService availabilityService,
+            ObjectMapper objectMapper,
+            @Value("${reservation.warmup.iterations:100}") int iterations,
+            @Value("${reservation.warmup.threads:4}") int threads
+    ) {
+        this.enabled = enabled;
+        this.reservationService = reservationService;
+        this.availabilityService = availabilityService;
+        this.objectMapper = objectMapper;
+        this.iterations = iterations;
+        this.threads = threads;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (!enabled) return;
+        long started = System.nanoTime();
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            var tasks = new ArrayList<Future<?>>();
+            for (int i = 0; i < threads; i++) {
+                tasks.add(executor.submit(this::warmUpDatabasePaths));
+                tasks.add(executor.submit(this::warmUpIndex));
+            }
+            for (var task : tasks) {
+                task.get();
+            }
+            log.info("warmup finished in {} ms", (System.nanoTime() - started) / 1_000_000);
+        } catch (ExecutionException e) {
+            log.warn("warmup failed after {} ms", (System.nanoTime() - started) / 1_000_000, e.getCause());
+        }
+    }
+
+    private void warmUpDatabasePaths() {
+        for (int i = 0; i < iterations; i++) {
+            var page = reservationService.searchAllByFilter(new ReservationSearchFilter(null, null, 20, i % 10, null));
+            for (var reservation : page) {
+                reservationService.getReservationById(reservation.id());
+            }
+            var start = BASE.plusDays(i % 365);
+            availabilityService.isReservationAvailable((long) (i % INDEX_ROOMS), start, start.plusDays(3));
+            try {
+                objectMapper.writeValueAsBytes(page);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private void warmUpIndex() {
+        var index = new RoomIntervalIndex();
+        index.rebuild(() -> {
+            var intervals = new ArrayList<ReservationInterval>();
+            for (int i = 0; i < INDEX_ROOMS * 50; i++) {
+                var start = BASE.plusDays((i * 7L) % 365);
+                intervals.add(new ReservationInterval((long) i, (long) (i % INDEX_ROOMS), start, start.plusDays(3)));
+            }
+            return intervals;
+        });
+        for (int i = 0; i < iterations * 100; i++) {
+            long roomId = i % INDEX_ROOMS;
+            var start = BASE.plusDays(i % 365);
+            index.hasConflict(roomId, start, start.plusDays(3));
+            index.findConflicts(roomId, start, start.plusDays(3));
+            index.busyRuns(roomId, start, start.plusDays(31));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package school.sorokin.reservation.web;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.availability.CheckAvailabilityRequest;
+import school.sorokin.reservation.reservations.availability.CheckAvailabilityResponse;
+import school.sorokin.reservation.reservations.availability.CheckAvailabilityResult;
+import school.sorokin.reservation.reservations.availability.DateWindow;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Compact CBOR for high-volume clients, chosen with {@code Accept} / {@code Content-Type: application/cbor};
+ * JSON stays the default. Reservations and availability records are written as arrays in component
+ * order, dates as epoch days, enums as ordinals, and the availability {@code message} is left out.
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryFormatConfiguration {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(compactCborMapper());
+    }
+
+    public static ObjectMapper compactCborMapper() {
+        var epochDays = new SimpleModule("epoch-days")
+                .addSerializer(LocalDate.class, new EpochDaySerializer())
+                .addDeserializer(LocalDate.class, new EpochDayDeserializer());
+        return Jackson2ObjectMapperBuilder.cbor()
+                .modulesToInstall(epochDays)
+                .featuresToEnable(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                .mixIn(Reservation.class, ReservationFormat.class)
+                .mixIn(CheckAvailabilityRequest.class, CheckAvailabilityRequestFormat.class)
+                .mixIn(CheckAvailabilityResponse.class, CheckAvailabilityResponseFormat.class)
+                .mixIn(CheckAvailabilityResult.class, CheckAvailabilityResultFormat.class)
+                .mixIn(DateWindow.class, DateWindowFormat.class)
+                .build();
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"id", "userId", "roomId", "startDate", "endDate", "status", "version"})
+    private interface ReservationFormat {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"roomId", "startDate", "endDate"})
+    private interface CheckAvailabilityRequestFormat {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonIgnoreProperties("message")
+    private interface CheckAvailabilityResponseFormat {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"roomId", "startDate", "endDate", "status"})
+    private interface CheckAvailabilityResultFormat {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"startDate", "endDate"})
+    private interface DateWindowFormat {
+    }
+
+    private static final class EpochDaySerializer extends StdScalarSerializer<LocalDate> {
+        EpochDaySerializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toEpochDay());
+        }
+    }
+
+    private static final class EpochDayDeserializer extends StdScalarDeserializer<LocalDate> {
+        EpochDayDeserializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+                return (LocalDate) ctxt.handleUnexpectedToken(LocalDate.class, p);
+            }
+            return LocalDate.ofEpochDay(p.getLongValue());
+        }
+    }
+}
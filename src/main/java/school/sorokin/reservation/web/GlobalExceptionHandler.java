@@ -3,19 +3,27 @@ package school.sorokin.reservation.web;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import school.sorokin.reservation.admission.AdmissionRejectedException;
 import school.sorokin.reservation.reservations.ReservationController;
+import school.sorokin.reservation.reservations.approval.ApprovalQueueFullException;
+import school.sorokin.reservation.reservations.idempotency.IdempotencyKeyInProgressException;
 
+import java.time.Duration;
 import java.time.LocalDate;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(ReservationController.class);
+    private static final String NO_OVERLAP_CONSTRAINT = "reservations_approved_no_overlap";
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDto> handleGenericExeption(Exception e){
@@ -64,4 +72,91 @@ public class GlobalExceptionHandler {
                 .status(HttpStatus.BAD_REQUEST)
                 .body(errorDto);
     }
+
+    /**
+     * The database message names constraints and echoes SQL, so it only goes to the log.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponseDto> handleConflict(DataIntegrityViolationException e){
+        log.error("handle DataIntegrityViolationException", e);
+
+        var cause = String.valueOf(e.getMostSpecificCause().getMessage());
+        var errorDto = new ErrorResponseDto(
+                "Conflict",
+                cause.contains(NO_OVERLAP_CONSTRAINT)
+                        ? "reservation conflicts with an existing approved reservation"
+                        : "reservation conflicts with the stored data",
+                LocalDate.now()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(errorDto);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleStaleVersion(OptimisticLockingFailureException e){
+        log.warn("handle OptimisticLockingFailureException: {}", e.getMessage());
+
+        var errorDto = new ErrorResponseDto(
+                "Conflict",
+                e.getMessage(),
+                LocalDate.now()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(errorDto);
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ErrorResponseDto> handleIdempotencyKeyInProgress(IdempotencyKeyInProgressException e){
+        log.warn("handle IdempotencyKeyInProgressException: {}", e.getMessage());
+
+        var errorDto = new ErrorResponseDto(
+                "Conflict",
+                e.getMessage(),
+                LocalDate.now()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(errorDto);
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ErrorResponseDto> handleAdmissionRejected(AdmissionRejectedException e){
+        log.debug("handle AdmissionRejectedException: {}", e.getMessage());
+
+        var errorDto = new ErrorResponseDto(
+                "Too many requests",
+                e.getMessage(),
+                LocalDate.now()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(e.retryAfter()))
+                .body(errorDto);
+    }
+
+    @ExceptionHandler(ApprovalQueueFullException.class)
+    public ResponseEntity<ErrorResponseDto> handleApprovalQueueFull(ApprovalQueueFullException e){
+        log.warn("handle ApprovalQueueFullException: {}", e.getMessage());
+
+        var errorDto = new ErrorResponseDto(
+                "Service unavailable",
+                e.getMessage(),
+                LocalDate.now()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(e.retryAfter()))
+                .body(errorDto);
+    }
+
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
 }
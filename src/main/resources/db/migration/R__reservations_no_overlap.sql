@@ -0,0 +1,18 @@
+-- Optional GiST exclusion constraint: no two APPROVED reservations of a room may overlap.
+-- Enabled with spring.flyway.placeholders.gistexclusion=true; re-applied whenever the flag changes.
+-- Its GiST index on (room_id, daterange(start_date, end_date)) also serves range-overlap (&&) queries.
+do $$
+begin
+    if '${gistexclusion}' = 'true' then
+        create extension if not exists btree_gist;
+        if not exists (select 1 from pg_constraint where conname = 'reservations_approved_no_overlap') then
+            alter table reservations
+                add constraint reservations_approved_no_overlap
+                exclude using gist (room_id with =, daterange(start_date, end_date) with &&)
+                where (status = 'APPROVED');
+        end if;
+    else
+        alter table reservations drop constraint if exists reservations_approved_no_overlap;
+    end if;
+end
+$$;
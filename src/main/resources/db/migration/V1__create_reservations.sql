@@ -0,0 +1,9 @@
+create table if not exists reservations (
+    id         bigint generated by default as identity primary key,
+    client_id  bigint       not null,
+    room_id    bigint       not null,
+    start_date date         not null,
+    end_date   date         not null,
+    status     varchar(255) not null
+        check (status in ('PENDING', 'APPROVED', 'CANCELED'))
+);
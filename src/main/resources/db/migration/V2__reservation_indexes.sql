@@ -0,0 +1,10 @@
+-- findConflictReservationIds: room_id = ? and status = ? and start_date < ? and end_date > ?
+create index concurrently if not exists idx_reservations_room_status_dates
+    on reservations (room_id, status, start_date, end_date);
+
+-- searchAllByFilter / searchAllByFilterAfter / streamAllByFilter: filter by room or client, order by id
+create index concurrently if not exists idx_reservations_room_id
+    on reservations (room_id, id);
+
+create index concurrently if not exists idx_reservations_client_id
+    on reservations (client_id, id);
@@ -0,0 +1,9 @@
+-- Hibernate cannot batch inserts into identity columns, so ids move to a sequence with
+-- pooled allocation: one nextval reserves a block of 50 ids (must match allocationSize).
+alter table reservations alter column id drop identity if exists;
+
+create sequence if not exists reservations_seq increment by 50;
+select setval('reservations_seq', (select coalesce(max(id), 0) + 50 from reservations));
+
+alter sequence reservations_seq owned by reservations.id;
+alter table reservations alter column id set default nextval('reservations_seq');
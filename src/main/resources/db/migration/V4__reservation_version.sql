@@ -0,0 +1,2 @@
+-- Optimistic locking: every write bumps the version, updates carry the version they read.
+alter table reservations add column if not exists version bigint not null default 0;
@@ -0,0 +1,13 @@
+-- Cold storage for finished and canceled reservations, range-partitioned by start month.
+-- Monthly partitions (reservations_archive_yYYYYmMM) are created by ReservationArchive on demand.
+create table if not exists reservations_archive (
+    id          bigint       not null,
+    client_id   bigint       not null,
+    room_id     bigint       not null,
+    start_date  date         not null,
+    end_date    date         not null,
+    status      varchar(255) not null,
+    version     bigint       not null,
+    archived_at timestamptz  not null default now(),
+    primary key (id, start_date)
+) partition by range (start_date);
@@ -0,0 +1,6 @@
+-- ReservationArchive candidates: status = 'CANCELED' or end_date < cutoff
+create index concurrently if not exists idx_reservations_end_date
+    on reservations (end_date);
+
+create index concurrently if not exists idx_reservations_canceled
+    on reservations (id) where status = 'CANCELED';
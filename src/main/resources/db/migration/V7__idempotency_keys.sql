@@ -0,0 +1,8 @@
+-- Shared Idempotency-Key store (reservation.idempotency.shared=true): a row is claimed before the
+-- request runs and holds the JSON response once it succeeded; failed requests delete their claim.
+create table if not exists idempotency_keys (
+    idempotency_key varchar(320) primary key,
+    fingerprint     text         not null,
+    response        text,
+    claimed_at      timestamptz  not null default now()
+);
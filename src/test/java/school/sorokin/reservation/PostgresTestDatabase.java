@@ -0,0 +1,67 @@
+package school.sorokin.reservation;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assumptions;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * PostgreSQL for tests that need the real database: an existing server given by
+ * {@code -Dtest.postgres.url} (with {@code test.postgres.username}/{@code test.postgres.password}),
+ * otherwise a shared Testcontainers instance. Tests are skipped when neither is available.
+ */
+public final class PostgresTestDatabase {
+    private static PostgreSQLContainer<?> container;
+
+    private PostgresTestDatabase() {
+    }
+
+    public record Connection(String url, String username, String password) {
+        /**
+         * The same database with {@code schema} as the current schema.
+         */
+        public String url(String schema) {
+            return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + schema;
+        }
+    }
+
+    /**
+     * Recreates {@code schema} empty and migrates it like the application does, with the exclusion
+     * constraint off. Connections of the returned data source use that schema.
+     */
+    public static DataSource migratedSchema(String schema) {
+        var database = get();
+        var dataSource = new DriverManagerDataSource(database.url(schema), database.username(), database.password());
+        new JdbcTemplate(dataSource).execute("drop schema if exists " + schema + " cascade");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(schema)
+                .placeholders(Map.of("gistexclusion", "false"))
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+        return dataSource;
+    }
+
+    public static synchronized Connection get() {
+        var url = System.getProperty("test.postgres.url");
+        if (url != null) {
+            return new Connection(
+                    url,
+                    System.getProperty("test.postgres.username", "postgres"),
+                    System.getProperty("test.postgres.password", "postgres"));
+        }
+        Assumptions.assumeTrue(DockerClientFactory.instance().isDockerAvailable(),
+                "no -Dtest.postgres.url and Docker is not available");
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+        }
+        return new Connection(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+}
@@ -0,0 +1,56 @@
+package school.sorokin.reservation.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControllerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void tokenBucketLimitsEachClientSeparately() {
+        var admission = admission(10, 5, 2, 1);
+
+        admission.admit(RequestClass.READ, "bot").run();
+        admission.admit(RequestClass.READ, "bot").run();
+        var rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.admit(RequestClass.READ, "bot"));
+
+        assertTrue(rejected.retryAfter().compareTo(Duration.ZERO) > 0);
+        assertDoesNotThrow(() -> admission.admit(RequestClass.READ, "user").run());
+        assertDoesNotThrow(() -> admission.admit(RequestClass.WRITE, "bot").run());
+        assertEquals(1.0, registry.get("reservation.admission.rejections")
+                .tag("class", "read").tag("reason", "rate_limited").counter().count());
+    }
+
+    @Test
+    void readsLeaveHeadroomForWrites() {
+        var admission = admission(3, 2, 1_000, 1_000);
+
+        var firstRead = admission.admit(RequestClass.READ, "a");
+        admission.admit(RequestClass.READ, "b");
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit(RequestClass.READ, "c"));
+
+        var write = admission.admit(RequestClass.WRITE, "d");
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit(RequestClass.WRITE, "e"));
+
+        firstRead.run();
+        write.run();
+        assertDoesNotThrow(() -> admission.admit(RequestClass.READ, "c"));
+    }
+
+    private AdmissionController admission(int maxConcurrent, int readMaxConcurrent, int readBurst, int writeBurst) {
+        return new AdmissionController(maxConcurrent, readMaxConcurrent, 10, Duration.ZERO, Duration.ZERO,
+                0.001, readBurst, 0.001, writeBurst, 100,
+                new StaticListableBeanFactory().getBeanProvider(DataSource.class), registry);
+    }
+}
@@ -0,0 +1,84 @@
+package school.sorokin.reservation.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdmissionInterceptorTest {
+
+    private final AdmissionController admission = new AdmissionController(1, 1, 10, Duration.ZERO, Duration.ZERO,
+            1_000, 1_000, 1_000, 1_000, 100,
+            new StaticListableBeanFactory().getBeanProvider(DataSource.class), new SimpleMeterRegistry());
+    private final AdmissionInterceptor interceptor = new AdmissionInterceptor(admission);
+
+    @Test
+    void clientIsTheAuthenticatedUserOrTheAddress() {
+        var request = new MockHttpServletRequest("GET", "/reservation");
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("X-Api-Key", "chosen-by-caller");
+        request.setParameter("userId", "42");
+
+        assertEquals("ip:203.0.113.7", AdmissionInterceptor.clientId(request));
+
+        request.setUserPrincipal(() -> "alice");
+        assertEquals("user:alice", AdmissionInterceptor.clientId(request));
+    }
+
+    @Test
+    void streamingResponseHoldsTheSlotUntilTheAsyncRequestCompletes() throws Exception {
+        var handler = handler("export");
+        var request = new MockHttpServletRequest("GET", "/reservation/export");
+        request.setAsyncSupported(true);
+        var response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, handler);
+        request.startAsync();
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit(RequestClass.READ, "other"));
+        request.getAsyncContext().complete();
+        assertDoesNotThrow(() -> admission.admit(RequestClass.READ, "other").run());
+    }
+
+    @Test
+    void asyncWaitReleasesTheSlotOnHandOver() throws Exception {
+        var handler = handler("await");
+        var request = new MockHttpServletRequest("GET", "/reservation/1/approval");
+        request.setAsyncSupported(true);
+        var response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, handler);
+        request.startAsync();
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+
+        assertDoesNotThrow(() -> admission.admit(RequestClass.READ, "other").run());
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getDeclaredMethod(name));
+    }
+
+    static class Handlers {
+        ResponseEntity<StreamingResponseBody> export() {
+            return ResponseEntity.ok(outputStream -> {
+            });
+        }
+
+        DeferredResult<String> await() {
+            return new DeferredResult<>();
+        }
+    }
+}
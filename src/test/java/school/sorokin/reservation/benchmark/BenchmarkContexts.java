@@ -0,0 +1,95 @@
+package school.sorokin.reservation.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import school.sorokin.reservation.ReservationSystemApplication;
+import school.sorokin.reservation.reservations.ReservationEntity;
+import school.sorokin.reservation.reservations.ReservationRepository;
+import school.sorokin.reservation.reservations.ReservationStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Starts the application against an in-memory H2 database in PostgreSQL mode,
+ * so benchmarks can run without an external Postgres. {@code -Dbenchmark.datasource.url}
+ * (plus {@code .username}/{@code .password}) points them at a real database instead. Admission
+ * control is off: load generators hit the server from one address.
+ */
+final class BenchmarkContexts {
+    static final LocalDate BASE_DATE = LocalDate.of(2030, 1, 1);
+
+    private BenchmarkContexts() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    static ConfigurableApplicationContext startServer(String... properties) {
+        return start(WebApplicationType.SERVLET, Stream.concat(
+                        Stream.of("server.port=0"),
+                        Arrays.stream(properties))
+                .toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String... properties) {
+        var args = Stream.concat(datasourceProperties(), Arrays.stream(properties))
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(ReservationSystemApplication.class)
+                .web(type)
+                .run(args);
+    }
+
+    private static Stream<String> datasourceProperties() {
+        var url = System.getProperty("benchmark.datasource.url", "");
+        if (!url.isBlank()) {
+            return Stream.of(
+                    "spring.datasource.url=" + url,
+                    "spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "postgres"),
+                    "spring.datasource.password=" + System.getProperty("benchmark.datasource.password", "postgres"),
+                    "spring.jpa.show-sql=false",
+                    "reservation.admission.enabled=false",
+                    "logging.level.root=WARN");
+        }
+        return Stream.of(
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID()
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.flyway.enabled=false",
+                "reservation.coherence.enabled=false",
+                "reservation.archive.enabled=false",
+                "reservation.admission.enabled=false",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN");
+    }
+
+    static void seed(ReservationRepository repository, int rows, int rooms, long seed) {
+        var random = new Random(seed);
+        var batch = new ArrayList<ReservationEntity>(1_000);
+        for (int i = 0; i < rows; i++) {
+            var start = BASE_DATE.plusDays(random.nextInt(365));
+            var status = ReservationStatus.values()[random.nextInt(ReservationStatus.values().length)];
+            batch.add(new ReservationEntity(
+                    null,
+                    (long) random.nextInt(rows / 10 + 1),
+                    (long) random.nextInt(rooms),
+                    start,
+                    start.plusDays(1 + random.nextInt(7)),
+                    status));
+            if (batch.size() == 1_000) {
+                repository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        repository.saveAll(batch);
+    }
+}
@@ -0,0 +1,113 @@
+package school.sorokin.reservation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcOperations;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationSearchFilter;
+import school.sorokin.reservation.reservations.ReservationService;
+import school.sorokin.reservation.reservations.archive.ReservationArchive;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot-path queries against a table with {@code history} finished or canceled reservations
+ * (2021-2025) next to the same 50 000 live ones (2030), with and without archival. The
+ * availability check goes through the database. Partitioning needs PostgreSQL: run with
+ * {@code -Dbenchmark.datasource.url}; the benchmark uses its own schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationArchiveBenchmark {
+    private static final String SCHEMA = "archive_benchmark";
+    private static final int LIVE_ROWS = 50_000;
+    private static final int ROOMS = 500;
+
+    @Param({"0", "1000000"})
+    int history;
+
+    @Param({"false", "true"})
+    boolean archived;
+
+    private ConfigurableApplicationContext context;
+    private ReservationAvailabilityService availabilityService;
+    private ReservationService reservationService;
+    private int counter;
+
+    @Setup
+    public void setUp() throws SQLException {
+        var url = System.getProperty("benchmark.datasource.url", "");
+        if (url.isBlank()) {
+            throw new IllegalStateException("archive benchmark needs PostgreSQL, set -Dbenchmark.datasource.url");
+        }
+        try (var connection = DriverManager.getConnection(url,
+                System.getProperty("benchmark.datasource.username", "postgres"),
+                System.getProperty("benchmark.datasource.password", "postgres"));
+             var statement = connection.createStatement()) {
+            statement.execute("drop schema if exists " + SCHEMA + " cascade");
+        }
+        context = BenchmarkContexts.start(
+                "spring.flyway.schemas=" + SCHEMA,
+                "spring.datasource.hikari.connection-init-sql=set search_path to " + SCHEMA,
+                "reservation.archive.enabled=true",
+                "reservation.archive.initial-delay-ms=86400000",
+                "reservation.archive.batch-size=50000");
+        var jdbc = context.getBean(JdbcOperations.class);
+        jdbc.update("""
+                insert into reservations (client_id, room_id, start_date, end_date, status)
+                select i % 20000, i % ?, date '2021-01-01' + (i % 1825), date '2021-01-01' + (i % 1825) + 1 + (i % 7),
+                       (array['PENDING', 'APPROVED', 'CANCELED'])[1 + i % 3]
+                from generate_series(1, ?) as i
+                """, ROOMS, history);
+        jdbc.update("""
+                insert into reservations (client_id, room_id, start_date, end_date, status)
+                select i % 20000, i % ?, date '2030-01-01' + (i % 365), date '2030-01-01' + (i % 365) + 1 + (i % 7),
+                       (array['PENDING', 'APPROVED'])[1 + i % 2]
+                from generate_series(1, ?) as i
+                """, ROOMS, LIVE_ROWS);
+        if (archived) {
+            context.getBean(ReservationArchive.class).archive(LocalDate.of(2026, 1, 1));
+        }
+        jdbc.execute("vacuum analyze reservations");
+        availabilityService = context.getBean(ReservationAvailabilityService.class);
+        reservationService = context.getBean(ReservationService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean availabilityInDatabase() {
+        int n = counter++;
+        var start = BenchmarkContexts.BASE_DATE.plusDays(n % 360);
+        return availabilityService.isReservationAvailableInDatabase((long) (n % ROOMS), start, start.plusDays(3));
+    }
+
+    @Benchmark
+    public List<Reservation> searchByRoom() {
+        int n = counter++;
+        return reservationService.searchAllByFilter(new ReservationSearchFilter((long) (n % ROOMS), null, 20, 0, null));
+    }
+}
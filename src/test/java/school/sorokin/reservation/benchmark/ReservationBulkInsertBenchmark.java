@@ -0,0 +1,82 @@
+package school.sorokin.reservation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import school.sorokin.reservation.reservations.BulkCreateResult;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationBulkService;
+import school.sorokin.reservation.reservations.ReservationService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Inserts {@value #BATCH} reservations per invocation through the single-insert path
+ * and through the bulk path; scores are per reservation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationBulkInsertBenchmark {
+    private static final int BATCH = 1_000;
+
+    @Param({"50"})
+    int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private ReservationService reservationService;
+    private ReservationBulkService bulkService;
+    private List<Reservation> reservations;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start("spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        reservationService = context.getBean(ReservationService.class);
+        bulkService = context.getBean(ReservationBulkService.class);
+        reservations = IntStream.range(0, BATCH)
+                .mapToObj(i -> new Reservation(
+                        null, (long) i, (long) (i % 100),
+                        BenchmarkContexts.BASE_DATE.plusDays(i % 365),
+                        BenchmarkContexts.BASE_DATE.plusDays(i % 365 + 2),
+                        null, null))
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int singleInserts() {
+        int created = 0;
+        for (var reservation : reservations) {
+            reservationService.createReservation(reservation);
+            created++;
+        }
+        return created;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<BulkCreateResult> bulkInsert() {
+        return bulkService.createReservations(reservations);
+    }
+}
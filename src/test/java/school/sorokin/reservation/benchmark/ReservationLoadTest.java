@@ -0,0 +1,135 @@
+package school.sorokin.reservation.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import school.sorokin.reservation.reservations.ReservationRepository;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test comparing Tomcat on platform threads, Tomcat on virtual threads and
+ * the R2DBC endpoints under {@code /reactive} at the same pool size. The cache and the interval index
+ * are off, so every request reaches the database. The reactive mode needs PostgreSQL
+ * ({@code -Dbenchmark.datasource.url}) and is skipped on H2. Run with
+ * {@code mvn -Pbenchmark verify exec:exec@load-test}. Tunables: {@code -Dload.concurrency},
+ * {@code -Dload.seconds}, {@code -Dload.pool-size}, {@code -Dload.rows}, {@code -Dload.modes}.
+ */
+public final class ReservationLoadTest {
+    private static final int ROOMS = 500;
+
+    private ReservationLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("load.concurrency", 400);
+        int seconds = Integer.getInteger("load.seconds", 20);
+        int poolSize = Integer.getInteger("load.pool-size", 10);
+        int rows = Integer.getInteger("load.rows", 50_000);
+        var modes = List.of(System.getProperty("load.modes", "platform,virtual,reactive").split(","));
+        boolean postgres = !System.getProperty("benchmark.datasource.url", "").isBlank();
+
+        var results = new ArrayList<String>();
+        for (var mode : modes) {
+            if (mode.equals("reactive") && !postgres) {
+                results.add("%-9s skipped: needs -Dbenchmark.datasource.url".formatted(mode));
+                continue;
+            }
+            try (var context = BenchmarkContexts.startServer(
+                    "spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                    "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                    "spring.datasource.hikari.connection-timeout=30000",
+                    "reservation.cache.enabled=false",
+                    "reservation.availability.index.enabled=false",
+                    "reservation.reactive.enabled=" + mode.equals("reactive"),
+                    "reservation.reactive.pool.max-size=" + poolSize,
+                    "reservation.reactive.pool.max-acquire-time=30s")) {
+                BenchmarkContexts.seed(context.getBean(ReservationRepository.class), rows, ROOMS, 42);
+                var baseUrl = "http://localhost:" + port(context)
+                        + (mode.equals("reactive") ? "/reactive/reservation" : "/reservation");
+                run(baseUrl, concurrency, Duration.ofSeconds(5), rows);
+                var result = run(baseUrl, concurrency, Duration.ofSeconds(seconds), rows);
+                results.add("%-9s %s".formatted(mode, result));
+            }
+        }
+        System.out.printf("%nconcurrency=%d pool-size=%d duration=%ds%n", concurrency, poolSize, seconds);
+        results.forEach(System.out::println);
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    static LoadResult run(String baseUrl, int concurrency, Duration duration, int rows) throws Exception {
+        var errors = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+        var latencies = new ArrayList<Future<long[]>>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor();
+             var client = HttpClient.newBuilder().executor(executor).build()) {
+            for (int i = 0; i < concurrency; i++) {
+                latencies.add(executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        var request = nextRequest(baseUrl, rows);
+                        long started = System.nanoTime();
+                        try {
+                            var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 500) errors.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+                        samples[count++] = System.nanoTime() - started;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+            var all = new ArrayList<long[]>();
+            for (var future : latencies) {
+                all.add(future.get());
+            }
+            long[] merged = all.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new LoadResult(merged, duration, errors.get());
+        }
+    }
+
+    private static HttpRequest nextRequest(String baseUrl, int rows) {
+        var random = ThreadLocalRandom.current();
+        var start = BenchmarkContexts.BASE_DATE.plusDays(random.nextInt(365));
+        var uri = switch (random.nextInt(3)) {
+            case 0 -> baseUrl + "/" + (1 + random.nextInt(rows));
+            case 1 -> baseUrl + "?pageSize=20&roomId=" + random.nextInt(ROOMS);
+            default -> baseUrl + "/availability/check?roomId=" + random.nextInt(ROOMS)
+                    + "&startDate=" + start + "&endDate=" + start.plusDays(3);
+        };
+        var builder = HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofSeconds(30));
+        return uri.contains("/availability/")
+                ? builder.POST(HttpRequest.BodyPublishers.noBody()).build()
+                : builder.GET().build();
+    }
+
+    record LoadResult(long[] sortedLatencies, Duration duration, long errors) {
+        @Override
+        public String toString() {
+            int n = sortedLatencies.length;
+            if (n == 0) return "no requests completed";
+            return "requests=%d rps=%.0f p50=%.2fms p99=%.2fms max=%.2fms errors=%d".formatted(
+                    n,
+                    n / (double) duration.toSeconds(),
+                    sortedLatencies[n / 2] / 1e6,
+                    sortedLatencies[Math.min(n - 1, (int) (n * 0.99))] / 1e6,
+                    sortedLatencies[n - 1] / 1e6,
+                    errors);
+        }
+    }
+}
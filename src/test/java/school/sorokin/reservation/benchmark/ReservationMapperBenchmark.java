@@ -0,0 +1,43 @@
+package school.sorokin.reservation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationEntity;
+import school.sorokin.reservation.reservations.ReservationMapper;
+import school.sorokin.reservation.reservations.ReservationStatus;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationMapperBenchmark {
+    private final ReservationMapper mapper = new ReservationMapper();
+    private final ReservationEntity entity = new ReservationEntity(
+            1L, 2L, 3L,
+            BenchmarkContexts.BASE_DATE,
+            BenchmarkContexts.BASE_DATE.plusDays(3),
+            ReservationStatus.APPROVED);
+    private final Reservation reservation = mapper.toDomain(entity);
+
+    @Benchmark
+    public Reservation toDomain() {
+        return mapper.toDomain(entity);
+    }
+
+    @Benchmark
+    public ReservationEntity toEntity() {
+        return mapper.toEntity(reservation);
+    }
+}
@@ -0,0 +1,109 @@
+package school.sorokin.reservation.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationEntity;
+import school.sorokin.reservation.reservations.ReservationMapper;
+import school.sorokin.reservation.reservations.ReservationRepository;
+import school.sorokin.reservation.reservations.ReservationSearchFilter;
+import school.sorokin.reservation.reservations.ReservationService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing a page of one room: managed entities copied by {@link ReservationMapper} versus the
+ * constructor-expression projection used by {@link ReservationService#searchAllByFilter}, with the
+ * same query shape; {@code serviceSearch} is the full service call. Compare {@code gc.alloc.rate.norm}
+ * (bytes per page) from the default {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationReadPathBenchmark {
+    private static final int ROWS = 50_000;
+    private static final int ROOMS = 50;
+
+    @Param({"20", "500"})
+    int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private ReservationService reservationService;
+    private ReservationMapper mapper;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start();
+        BenchmarkContexts.seed(context.getBean(ReservationRepository.class), ROWS, ROOMS, 42);
+        reservationService = context.getBean(ReservationService.class);
+        mapper = context.getBean(ReservationMapper.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Reservation> entitiesAndMapper() {
+        long roomId = counter++ % ROOMS;
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("""
+                        select r from ReservationEntity r
+                        where r.roomId = :roomId
+                        order by r.id
+                        """, ReservationEntity.class)
+                .setParameter("roomId", roomId)
+                .setMaxResults(pageSize)
+                .getResultStream()
+                .map(mapper::toDomain)
+                .toList());
+    }
+
+    @Benchmark
+    public List<Reservation> projection() {
+        long roomId = counter++ % ROOMS;
+        return readOnlyTransactionTemplate.execute(status -> entityManager
+                .createQuery("""
+                        select new school.sorokin.reservation.reservations.Reservation(
+                            r.id, r.userId, r.roomId, r.startDate, r.endDate, r.status, r.version)
+                        from ReservationEntity r
+                        where r.roomId = :roomId
+                        order by r.id
+                        """, Reservation.class)
+                .setParameter("roomId", roomId)
+                .setMaxResults(pageSize)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<Reservation> serviceSearch() {
+        long roomId = counter++ % ROOMS;
+        return reservationService.searchAllByFilter(new ReservationSearchFilter(roomId, null, pageSize, 0, null));
+    }
+}
@@ -0,0 +1,69 @@
+package school.sorokin.reservation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationRepository;
+import school.sorokin.reservation.reservations.ReservationSearchFilter;
+import school.sorokin.reservation.reservations.ReservationService;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationServiceBenchmark {
+    private static final int ROWS = 50_000;
+    private static final int ROOMS = 500;
+
+    @Param({"true", "false"})
+    boolean availabilityIndex;
+
+    private ConfigurableApplicationContext context;
+    private ReservationService reservationService;
+    private ReservationAvailabilityService availabilityService;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start("reservation.availability.index.enabled=" + availabilityIndex);
+        BenchmarkContexts.seed(context.getBean(ReservationRepository.class), ROWS, ROOMS, 42);
+        reservationService = context.getBean(ReservationService.class);
+        availabilityService = context.getBean(ReservationAvailabilityService.class);
+        availabilityService.warmUpIndex();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Reservation> searchAllByFilter() {
+        long roomId = counter++ % ROOMS;
+        return reservationService.searchAllByFilter(new ReservationSearchFilter(roomId, null, 20, 0, null));
+    }
+
+    @Benchmark
+    public boolean isReservationAvailable() {
+        int i = counter++;
+        var start = BenchmarkContexts.BASE_DATE.plusDays(i % 365);
+        return availabilityService.isReservationAvailable((long) (i % ROOMS), start, start.plusDays(3));
+    }
+}
@@ -0,0 +1,130 @@
+package school.sorokin.reservation.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Starts the packaged application as a separate JVM and measures the time from launch until
+ * {@code /actuator/health/readiness} answers {@code UP}, then the latency of the first listing and
+ * the first availability check. Compares the plain jar, the {@code startup} profile, and the profile on
+ * the AOT-processed extracted jar with its CDS archive. Build with {@code mvn -Pstartup package -DskipTests},
+ * then run {@code mvn -Pbenchmark test-compile exec:exec@startup-test}. Tunables: {@code -Dstartup.runs}.
+ */
+public final class ReservationStartupBenchmark {
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private ReservationStartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 3);
+        var jar = Path.of(System.getProperty("startup.jar"));
+        var extracted = Path.of(System.getProperty("startup.extracted"));
+        var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        var extractedJar = extracted.resolve(jar.getFileName()).toString();
+
+        var variants = Map.of(
+                "default", List.of(java, "-jar", jar.toString()),
+                "profile", List.of(java, "-jar", jar.toString(), "--spring.profiles.active=startup"),
+                "aot+cds", List.of(java,
+                        "-XX:SharedArchiveFile=" + extracted.resolve("application.jsa"),
+                        "-Xlog:cds=off",
+                        "-Dspring.aot.enabled=true",
+                        "-jar", extractedJar, "--spring.profiles.active=startup"));
+
+        var results = new ArrayList<String>();
+        for (var variant : List.of("default", "profile", "aot+cds")) {
+            var samples = new ArrayList<long[]>();
+            for (int run = 0; run < runs; run++) {
+                samples.add(measure(variant, variants.get(variant), run));
+            }
+            results.add("%-8s ready=%dms first-list=%dms first-check=%dms time-to-first-request=%dms".formatted(
+                    variant, median(samples, 0), median(samples, 1), median(samples, 2),
+                    median(samples, 0) + median(samples, 1)));
+        }
+        System.out.printf("%nmedian of %d runs%n", runs);
+        results.forEach(System.out::println);
+    }
+
+    private static long[] measure(String variant, List<String> command, int run) throws Exception {
+        int port = freePort();
+        var arguments = Stream.concat(command.stream(), datasourceArguments())
+                .toList();
+        var process = new ProcessBuilder(Stream.concat(arguments.stream(), Stream.of("--server.port=" + port)).toList())
+                .redirectErrorStream(true)
+                .redirectOutput(Path.of("target", "startup-" + variant.replace('+', '-') + "-" + run + ".log").toFile())
+                .start();
+        long launched = System.nanoTime();
+        try (var client = HttpClient.newHttpClient()) {
+            var baseUrl = "http://localhost:" + port;
+            awaitReady(client, baseUrl, process);
+            long ready = System.nanoTime() - launched;
+            long list = time(client, HttpRequest.newBuilder(URI.create(baseUrl + "/reservation?pageSize=20")).GET());
+            long check = time(client, HttpRequest.newBuilder(URI.create(baseUrl
+                    + "/reservation/availability/check?roomId=1&startDate=2030-01-01&endDate=2030-01-04"))
+                    .POST(HttpRequest.BodyPublishers.noBody()));
+            return new long[]{ready / 1_000_000, list / 1_000_000, check / 1_000_000};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) process.destroyForcibly();
+        }
+    }
+
+    private static Stream<String> datasourceArguments() {
+        var url = System.getProperty("benchmark.datasource.url", "");
+        if (url.isBlank()) return Stream.empty();
+        return Stream.of(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "postgres"),
+                "--spring.datasource.password=" + System.getProperty("benchmark.datasource.password", "postgres"));
+    }
+
+    private static void awaitReady(HttpClient client, String baseUrl, Process process) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness")).GET().build();
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("application exited with " + process.exitValue());
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) return;
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("application not ready within " + TIMEOUT);
+    }
+
+    private static long time(HttpClient client, HttpRequest.Builder request) throws Exception {
+        long started = System.nanoTime();
+        var response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.build().uri() + " answered " + response.statusCode());
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static long median(List<long[]> samples, int column) {
+        long[] values = samples.stream().mapToLong(sample -> sample[column]).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package school.sorokin.reservation.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationStatus;
+import school.sorokin.reservation.reservations.availability.AvailabilityStatus;
+import school.sorokin.reservation.reservations.availability.CheckAvailabilityResponse;
+import school.sorokin.reservation.web.BinaryFormatConfiguration;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * JSON as served by default against the compact CBOR of {@link BinaryFormatConfiguration}.
+ * Payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationWireFormatBenchmark {
+    private static final TypeReference<List<Reservation>> RESERVATIONS = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor"})
+    String format;
+
+    @Param({"1", "1000"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private List<Reservation> reservations;
+    private byte[] encodedReservations;
+    private CheckAvailabilityResponse availability;
+    private byte[] encodedAvailability;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = format.equals("cbor")
+                ? BinaryFormatConfiguration.compactCborMapper()
+                : Jackson2ObjectMapperBuilder.json().build();
+        reservations = LongStream.range(0, size)
+                .mapToObj(i -> new Reservation(
+                        100_000 + i, i % 97, i % 13,
+                        BenchmarkContexts.BASE_DATE.plusDays(i % 365),
+                        BenchmarkContexts.BASE_DATE.plusDays(i % 365 + 3),
+                        ReservationStatus.values()[(int) (i % 3)],
+                        i % 5))
+                .toList();
+        encodedReservations = objectMapper.writeValueAsBytes(reservations);
+        availability = new CheckAvailabilityResponse("room not available to reservation", AvailabilityStatus.RESERVED);
+        encodedAvailability = objectMapper.writeValueAsBytes(availability);
+        System.out.printf("%n%s: %d reservations = %d bytes, availability response = %d bytes%n",
+                format, size, encodedReservations.length, encodedAvailability.length);
+    }
+
+    @Benchmark
+    public byte[] writeReservations() throws IOException {
+        return objectMapper.writeValueAsBytes(reservations);
+    }
+
+    @Benchmark
+    public List<Reservation> readReservations() throws IOException {
+        return objectMapper.readValue(encodedReservations, RESERVATIONS);
+    }
+
+    @Benchmark
+    public byte[] writeAvailability() throws IOException {
+        return objectMapper.writeValueAsBytes(availability);
+    }
+
+    @Benchmark
+    public CheckAvailabilityResponse readAvailability() throws IOException {
+        return objectMapper.readValue(encodedAvailability, CheckAvailabilityResponse.class);
+    }
+}
@@ -0,0 +1,63 @@
+package school.sorokin.reservation.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import school.sorokin.reservation.PostgresTestDatabase;
+import school.sorokin.reservation.ReservationSystemApplication;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationSearchFilter;
+import school.sorokin.reservation.reservations.ReservationService;
+import school.sorokin.reservation.reservations.ReservationStatus;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The "replica" is a schema of the test database holding a stale copy of a row. Listings may read
+ * it, but lookups by id must see the primary, because their result stays in the reservation cache.
+ */
+class ReplicaCacheLoadTest {
+
+    private static final String REPLICA_SCHEMA = "replica_stale";
+
+    @Test
+    void cacheMissIsLoadedFromPrimary() {
+        var database = PostgresTestDatabase.get();
+        var jdbc = new JdbcTemplate(new DriverManagerDataSource(database.url(), database.username(), database.password()));
+        var replicaUrl = database.url(REPLICA_SCHEMA);
+        long roomId = ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE);
+        var start = LocalDate.now().plusYears(5);
+
+        try (var context = new SpringApplicationBuilder(ReservationSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + database.url(),
+                        "--spring.datasource.username=" + database.username(),
+                        "--spring.datasource.password=" + database.password(),
+                        "--reservation.datasource.replica.jdbc-url=" + replicaUrl,
+                        "--reservation.datasource.replica.username=" + database.username(),
+                        "--reservation.datasource.replica.password=" + database.password())) {
+            jdbc.execute("drop schema if exists " + REPLICA_SCHEMA + " cascade");
+            jdbc.execute("create schema " + REPLICA_SCHEMA);
+            jdbc.execute("create table " + REPLICA_SCHEMA + ".reservations as select * from public.reservations where false");
+            var service = context.getBean(ReservationService.class);
+
+            var created = service.createReservation(new Reservation(null, 1L, roomId, start, start.plusDays(2), null, null));
+            jdbc.update("""
+                    insert into replica_stale.reservations (id, client_id, room_id, start_date, end_date, status, version)
+                    values (?, 1, ?, ?, ?, 'CANCELED', 0)
+                    """, created.id(), roomId, start, start.plusDays(2));
+
+            var listed = service.searchAllByFilter(new ReservationSearchFilter(roomId, null, 10, 0, null));
+            assertEquals(ReservationStatus.CANCELED, listed.getFirst().status());
+            assertEquals(ReservationStatus.PENDING, service.getReservationById(created.id()).status());
+        } finally {
+            jdbc.update("delete from public.reservations where room_id = ?", roomId);
+            jdbc.execute("drop schema if exists " + REPLICA_SCHEMA + " cascade");
+        }
+    }
+}
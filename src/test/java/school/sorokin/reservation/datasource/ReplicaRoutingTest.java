@@ -0,0 +1,80 @@
+package school.sorokin.reservation.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingTest {
+
+    private double lagSeconds;
+    private boolean replicaDown;
+    private ReplicaLagGuard lagGuard;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        var primary = database("primary");
+        var replica = database("replica");
+        lagGuard = new ReplicaLagGuard(replica, Duration.ofSeconds(1)) {
+            @Override
+            double measureLagSeconds() throws SQLException {
+                if (replicaDown) throw new SQLException("connection refused");
+                return lagSeconds;
+            }
+        };
+        var dataSource = new ReplicaRoutingConfiguration().dataSource(primary, replica, lagGuard);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        lagGuard.check();
+
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoAmI()));
+        assertEquals("primary", writeTransaction.execute(status -> whoAmI()));
+        assertEquals("primary", whoAmI());
+    }
+
+    @Test
+    void laggingOrUnreachableReplicaFallsBackToPrimary() {
+        lagSeconds = 5;
+        lagGuard.check();
+        assertEquals("primary", readOnlyTransaction.execute(status -> whoAmI()));
+
+        lagSeconds = 0.2;
+        lagGuard.check();
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoAmI()));
+
+        replicaDown = true;
+        lagGuard.check();
+        assertEquals("primary", readOnlyTransaction.execute(status -> whoAmI()));
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table node (name varchar(20))");
+        jdbc.update("insert into node values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,148 @@
+package school.sorokin.reservation.reservations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+import school.sorokin.reservation.reservations.availability.RoomIntervalIndex;
+import school.sorokin.reservation.reservations.archive.ReservationArchive;
+import school.sorokin.reservation.reservations.changes.ReservationChangeNotifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReservationApprovalConcurrencyTest {
+
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+    private static final int ROOMS = 8;
+    private static final int RESERVATIONS = 4_000;
+    private static final int THREADS = 64;
+
+    private final Map<Long, ReservationEntity> table = new ConcurrentHashMap<>();
+
+    @Test
+    void concurrentApprovalsNeverOverlapWithIndex() throws Exception {
+        runStress(true);
+    }
+
+    @Test
+    void concurrentApprovalsNeverOverlapWithDatabaseCheck() throws Exception {
+        runStress(false);
+    }
+
+    private void runStress(boolean indexEnabled) throws Exception {
+        var random = new Random(7);
+        for (long id = 1; id <= RESERVATIONS; id++) {
+            var start = BASE.plusDays(random.nextInt(120));
+            table.put(id, new ReservationEntity(id, id, (long) random.nextInt(ROOMS),
+                    start, start.plusDays(1 + random.nextInt(7)), ReservationStatus.PENDING));
+        }
+        var repository = fakeRepository();
+        var registry = new SimpleMeterRegistry();
+        var metrics = new ReservationMetrics(registry);
+        var availabilityService = new ReservationAvailabilityService(repository, new RoomIntervalIndex(), indexEnabled, metrics);
+        availabilityService.warmUpIndex();
+        var lock = new RoomApprovalLock(RoomLockMode.STRIPED, 4, TransactionOperations.withoutTransaction(), null);
+        var service = new ReservationService(repository, new ReservationMapper(), availabilityService, lock,
+                new ReservationCache(true, 1_000, Duration.ofMinutes(1)), metrics,
+                new ReservationChangeNotifier(false, null),
+                new ReservationArchive(false, Duration.ZERO, 1, null, null, null, null));
+
+        var approved = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            for (long id = 1; id <= RESERVATIONS; id++) {
+                long reservationId = id;
+                executor.submit(() -> {
+                    start.await();
+                    try {
+                        service.approveReservation(reservationId);
+                        approved.incrementAndGet();
+                    } catch (IllegalArgumentException conflict) {
+                        // expected for overlapping requests
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        assertTrue(approved.get() > 0);
+        assertEquals(approved.get(), approvedRows().size());
+        assertEquals(0, countOverlaps(approvedRows()));
+        assertEquals(approved.get(), registry.counter("reservation.approvals", "outcome", "approved").count());
+        assertEquals(RESERVATIONS - approved.get(),
+                registry.counter("reservation.approvals", "outcome", "conflict").count());
+    }
+
+    private ReservationRepository fakeRepository() {
+        var repository = mock(ReservationRepository.class);
+        when(repository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(table.get(invocation.<Long>getArgument(0))).map(this::copy));
+        when(repository.findRoomIdById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(table.get(invocation.<Long>getArgument(0))).map(ReservationEntity::getRoomId));
+        when(repository.save(any(ReservationEntity.class))).thenAnswer(invocation -> {
+            ReservationEntity entity = invocation.getArgument(0);
+            Thread.yield();
+            table.put(entity.getId(), copy(entity));
+            return entity;
+        });
+        when(repository.findIntervalsByStatus(any())).thenReturn(List.of());
+        when(repository.findConflictReservationIds(anyLong(), any(), any(), any())).thenAnswer(invocation -> {
+            Long roomId = invocation.getArgument(0);
+            LocalDate startDate = invocation.getArgument(1);
+            LocalDate endDate = invocation.getArgument(2);
+            return table.values().stream()
+                    .filter(r -> r.getStatus() == ReservationStatus.APPROVED)
+                    .filter(r -> r.getRoomId().equals(roomId))
+                    .filter(r -> r.getStartDate().isBefore(endDate) && startDate.isBefore(r.getEndDate()))
+                    .map(ReservationEntity::getId)
+                    .toList();
+        });
+        return repository;
+    }
+
+    private List<ReservationEntity> approvedRows() {
+        return table.values().stream()
+                .filter(r -> r.getStatus() == ReservationStatus.APPROVED)
+                .toList();
+    }
+
+    private static int countOverlaps(List<ReservationEntity> approved) {
+        int overlaps = 0;
+        var rows = new ArrayList<>(approved);
+        for (int i = 0; i < rows.size(); i++) {
+            for (int j = i + 1; j < rows.size(); j++) {
+                var a = rows.get(i);
+                var b = rows.get(j);
+                if (a.getRoomId().equals(b.getRoomId())
+                        && a.getStartDate().isBefore(b.getEndDate())
+                        && b.getStartDate().isBefore(a.getEndDate())) {
+                    overlaps++;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    private ReservationEntity copy(ReservationEntity entity) {
+        return new ReservationEntity(entity.getId(), entity.getUserId(), entity.getRoomId(),
+                entity.getStartDate(), entity.getEndDate(), entity.getStatus());
+    }
+}
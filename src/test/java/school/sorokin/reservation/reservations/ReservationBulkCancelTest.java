@@ -0,0 +1,103 @@
+package school.sorokin.reservation.reservations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import school.sorokin.reservation.PostgresTestDatabase;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+import school.sorokin.reservation.reservations.changes.ReservationChangeNotifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ReservationBulkCancelTest {
+
+    private static final String SCHEMA = "bulk_cancel_test";
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+
+    private final ReservationCache cache = new ReservationCache(true, 100, Duration.ofMinutes(1));
+    private final ReservationAvailabilityService availabilityService = mock(ReservationAvailabilityService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbc;
+    private ReservationBulkService service;
+
+    @BeforeEach
+    void migrate() {
+        jdbc = new JdbcTemplate(PostgresTestDatabase.migratedSchema(SCHEMA));
+        service = new ReservationBulkService(null, new ReservationMapper(), null, jdbc, cache,
+                availabilityService, new ReservationChangeNotifier(false, null),
+                new ReservationMetrics(registry), 50, 4);
+    }
+
+    @Test
+    void cancelsPendingByIdsAndReportsEveryOutcome() {
+        long pending = insert(1L, 0, 2, ReservationStatus.PENDING);
+        long approved = insert(1L, 2, 4, ReservationStatus.APPROVED);
+        long canceled = insert(1L, 4, 6, ReservationStatus.CANCELED);
+        cache.get(pending, id -> new Reservation(id, 1L, 1L, BASE, BASE.plusDays(2), ReservationStatus.PENDING, 0L));
+
+        var results = service.cancelReservations(
+                new BulkCancelRequest(List.of(canceled, pending, -1L, approved, pending), null, null, null));
+
+        assertEquals(List.of(
+                new BulkCancelResult(-1L, CancelOutcome.NOT_FOUND),
+                new BulkCancelResult(pending, CancelOutcome.CANCELED),
+                new BulkCancelResult(approved, CancelOutcome.APPROVED),
+                new BulkCancelResult(canceled, CancelOutcome.ALREADY_CANCELED)), results);
+        assertEquals("CANCELED", status(pending));
+        assertEquals(1L, jdbc.queryForObject("select version from reservations where id = ?", Long.class, pending));
+        assertEquals("APPROVED", status(approved));
+        assertEquals(ReservationStatus.CANCELED, cache.get(pending, id -> new Reservation(
+                id, 1L, 1L, BASE, BASE.plusDays(2), ReservationStatus.CANCELED, 1L)).status());
+        verify(availabilityService).markReleased(pending, 1L);
+        assertEquals(1.0, registry.get("reservation.cancellations").tag("outcome", "canceled").counter().count());
+    }
+
+    @Test
+    void cancelsOverlappingReservationsOfRoom() {
+        long inside = insert(1L, 3, 5, ReservationStatus.PENDING);
+        long overlapping = insert(1L, 9, 12, ReservationStatus.PENDING);
+        long approved = insert(1L, 5, 7, ReservationStatus.APPROVED);
+        long after = insert(1L, 10, 12, ReservationStatus.PENDING);
+        long otherRoom = insert(2L, 3, 5, ReservationStatus.PENDING);
+
+        var results = service.cancelReservations(new BulkCancelRequest(null, 1L, BASE.plusDays(2), BASE.plusDays(10)));
+
+        assertEquals(List.of(
+                new BulkCancelResult(inside, CancelOutcome.CANCELED),
+                new BulkCancelResult(overlapping, CancelOutcome.CANCELED),
+                new BulkCancelResult(approved, CancelOutcome.APPROVED)), results);
+        assertEquals("PENDING", status(after));
+        assertEquals("PENDING", status(otherRoom));
+    }
+
+    @Test
+    void rejectsInvalidRequests() {
+        assertThrows(IllegalArgumentException.class, () ->
+                service.cancelReservations(new BulkCancelRequest(List.of(1L, 2L, 3L, 4L, 5L), null, null, null)));
+        assertThrows(IllegalArgumentException.class, () ->
+                service.cancelReservations(new BulkCancelRequest(List.of(1L), 1L, null, null)));
+        assertThrows(IllegalArgumentException.class, () ->
+                service.cancelReservations(new BulkCancelRequest(null, 1L, BASE, null)));
+    }
+
+    private long insert(Long roomId, int startDay, int endDay, ReservationStatus status) {
+        return jdbc.queryForObject("""
+                        insert into reservations (client_id, room_id, start_date, end_date, status)
+                        values (1, ?, ?, ?, ?)
+                        returning id
+                        """,
+                Long.class, roomId, BASE.plusDays(startDay), BASE.plusDays(endDay), status.name());
+    }
+
+    private String status(long id) {
+        return jdbc.queryForObject("select status from reservations where id = ?", String.class, id);
+    }
+}
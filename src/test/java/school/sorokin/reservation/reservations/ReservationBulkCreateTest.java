@@ -0,0 +1,132 @@
+package school.sorokin.reservation.reservations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+import school.sorokin.reservation.reservations.changes.ReservationChangeNotifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ReservationBulkCreateTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(10);
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final List<ReservationEntity> persisted = new ArrayList<>();
+    private final ReservationBulkService service = new ReservationBulkService(entityManager, new ReservationMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(), null,
+            new ReservationCache(true, 100, Duration.ofMinutes(1)), mock(ReservationAvailabilityService.class),
+            new ReservationChangeNotifier(false, null), new ReservationMetrics(new SimpleMeterRegistry()), 2, 6);
+
+    {
+        var ids = new AtomicLong(100);
+        doAnswer(invocation -> {
+            ReservationEntity entity = invocation.getArgument(0);
+            entity.setId(ids.incrementAndGet());
+            entity.setVersion(0L);
+            persisted.add(entity);
+            return null;
+        }).when(entityManager).persist(any(ReservationEntity.class));
+    }
+
+    @Test
+    void reportsEveryItemInRequestOrderAndCreatesTheValidOnes() {
+        var results = service.createReservations(Arrays.asList(
+                reservation(1L, 0, 2),
+                new Reservation(null, 1L, 2L, START.plusDays(3), START.plusDays(1), null, null),
+                null,
+                reservation(2L, 1, 4),
+                new Reservation(null, null, 3L, START, START.plusDays(1), null, null),
+                reservation(3L, 5, 6)));
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), results.stream().map(BulkCreateResult::index).toList());
+        assertEquals(List.of(101L, 102L, 103L), persisted.stream().map(ReservationEntity::getId).toList());
+
+        assertEquals(new Reservation(101L, 1L, 1L, START, START.plusDays(2), ReservationStatus.PENDING, 0L),
+                results.get(0).reservation());
+        assertNull(results.get(0).error());
+        assertEquals("start should to be before end", results.get(1).error());
+        assertEquals("reservation should not be null", results.get(2).error());
+        assertEquals(102L, results.get(3).reservation().id());
+        assertEquals("userId must not be null", results.get(4).error());
+        assertNull(results.get(4).reservation());
+        assertEquals(103L, results.get(5).reservation().id());
+    }
+
+    @Test
+    void collectsEveryViolationOfAnItem() {
+        var results = service.createReservations(List.of(
+                new Reservation(5L, null, null, START, START.plusDays(1), ReservationStatus.APPROVED, null)));
+
+        assertEquals("id must be null, roomId must not be null, userId must not be null", results.getFirst().error());
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void rejectsStatusAndVersionSetByTheClient() {
+        var results = service.createReservations(List.of(
+                new Reservation(null, 1L, 1L, START, START.plusDays(1), ReservationStatus.APPROVED, null),
+                new Reservation(null, 1L, 1L, START, START.plusDays(1), null, 3L)));
+
+        assertEquals("Status should be empty ", results.get(0).error());
+        assertEquals("Version should be empty ", results.get(1).error());
+        assertEquals(List.of(), persisted);
+    }
+
+    @Test
+    void rejectsMoreThanMaxSizeBeforePersistingAnything() {
+        var tooMany = new ArrayList<Reservation>();
+        for (int i = 0; i < 7; i++) {
+            tooMany.add(reservation((long) i, 0, 1));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> service.createReservations(tooMany));
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void flushesAndClearsEveryBatchOfCreatedReservations() {
+        service.createReservations(Arrays.asList(
+                reservation(1L, 0, 1),
+                null,
+                reservation(2L, 0, 1),
+                reservation(3L, 0, 1),
+                reservation(4L, 0, 1),
+                reservation(5L, 0, 1)));
+
+        InOrder order = inOrder(entityManager);
+        order.verify(entityManager, times(2)).persist(any());
+        order.verify(entityManager).flush();
+        order.verify(entityManager).clear();
+        order.verify(entityManager, times(2)).persist(any());
+        order.verify(entityManager).flush();
+        order.verify(entityManager).clear();
+        order.verify(entityManager).persist(any());
+        order.verify(entityManager).flush();
+        order.verify(entityManager).clear();
+        order.verifyNoMoreInteractions();
+    }
+
+    private static Reservation reservation(Long roomId, int startDay, int endDay) {
+        return new Reservation(null, 1L, roomId, START.plusDays(startDay), START.plusDays(endDay), null, null);
+    }
+}
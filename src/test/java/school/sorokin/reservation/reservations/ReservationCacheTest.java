@@ -0,0 +1,121 @@
+package school.sorokin.reservation.reservations;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationCacheTest {
+
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+
+    @Test
+    void loadsOnceUntilInvalidated() {
+        var cache = new ReservationCache(true, 100, Duration.ofMinutes(1));
+        var loads = new AtomicInteger();
+
+        cache.get(1L, id -> reservation(id, ReservationStatus.PENDING, loads));
+        cache.get(1L, id -> reservation(id, ReservationStatus.PENDING, loads));
+        assertEquals(1, loads.get());
+
+        cache.invalidate(1L);
+        var reloaded = cache.get(1L, id -> reservation(id, ReservationStatus.APPROVED, loads));
+        assertEquals(2, loads.get());
+        assertEquals(ReservationStatus.APPROVED, reloaded.status());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(2, cache.stats().missCount());
+    }
+
+    @Test
+    void invalidationDuringLoadDropsTheLoadedValue() throws Exception {
+        var cache = new ReservationCache(true, 100, Duration.ofMinutes(1));
+        var row = new AtomicReference<>(ReservationStatus.PENDING);
+        var loadStarted = new CountDownLatch(1);
+        var writeCommitted = new CountDownLatch(1);
+
+        try (var executor = Executors.newFixedThreadPool(2)) {
+            var reader = executor.submit(() -> cache.get(1L, id -> {
+                var status = row.get();
+                loadStarted.countDown();
+                await(writeCommitted);
+                return reservation(id, status, new AtomicInteger());
+            }));
+            loadStarted.await();
+            var writer = executor.submit(() -> {
+                row.set(ReservationStatus.APPROVED);
+                writeCommitted.countDown();
+                cache.invalidate(1L);
+            });
+            writer.get();
+            assertEquals(ReservationStatus.PENDING, reader.get().status());
+        }
+
+        var fresh = cache.get(1L, id -> reservation(id, row.get(), new AtomicInteger()));
+        assertEquals(ReservationStatus.APPROVED, fresh.status());
+    }
+
+    @Test
+    void loadRunsOutsideTheCacheLock() throws Exception {
+        var cache = new ReservationCache(true, 100, Duration.ofMinutes(1));
+        var loadStarted = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var reader = executor.submit(() -> cache.get(1L, id -> {
+                loadStarted.countDown();
+                await(release);
+                return reservation(id, ReservationStatus.PENDING, new AtomicInteger());
+            }));
+            loadStarted.await();
+            executor.submit(() -> cache.invalidate(1L)).get(1, TimeUnit.SECONDS);
+            release.countDown();
+            assertEquals(ReservationStatus.PENDING, reader.get().status());
+        }
+        assertEquals(ReservationStatus.APPROVED,
+                cache.get(1L, id -> reservation(id, ReservationStatus.APPROVED, new AtomicInteger())).status());
+    }
+
+    @Test
+    void failedLoadIsRethrownAndNotCached() {
+        var cache = new ReservationCache(true, 100, Duration.ofMinutes(1));
+
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, id -> {
+            throw new IllegalStateException("database is down");
+        }));
+        assertEquals(ReservationStatus.PENDING,
+                cache.get(1L, id -> reservation(id, ReservationStatus.PENDING, new AtomicInteger())).status());
+    }
+
+    @Test
+    void evictsBeyondMaximumSize() {
+        var cache = new ReservationCache(true, 10, Duration.ofMinutes(1));
+        for (long id = 0; id < 100; id++) {
+            cache.get(id, key -> reservation(key, ReservationStatus.PENDING, new AtomicInteger()));
+        }
+        cache.nativeCache().cleanUp();
+        assertTrue(cache.nativeCache().estimatedSize() <= 10);
+        assertTrue(cache.stats().evictionCount() > 0);
+    }
+
+    private static Reservation reservation(Long id, ReservationStatus status, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new Reservation(id, 1L, 1L, BASE, BASE.plusDays(1), status, 0L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package school.sorokin.reservation.reservations;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcOperations;
+import school.sorokin.reservation.PostgresTestDatabase;
+import school.sorokin.reservation.ReservationSystemApplication;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the keyset query of {@code GET /reservation?cursor=} against PostgreSQL.
+ */
+class ReservationCursorPagingTest {
+
+    private static final LocalDate START = LocalDate.now().plusYears(5);
+
+    private static ConfigurableApplicationContext context;
+    private static long roomId;
+
+    @BeforeAll
+    static void start() {
+        var database = PostgresTestDatabase.get();
+        context = new SpringApplicationBuilder(ReservationSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + database.url(),
+                        "--spring.datasource.username=" + database.username(),
+                        "--spring.datasource.password=" + database.password());
+        roomId = ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE);
+    }
+
+    @AfterAll
+    static void stop() {
+        if (context == null) return;
+        context.getBean(JdbcOperations.class).update("delete from reservations where room_id = ?", roomId);
+        context.close();
+    }
+
+    @Test
+    void pagesThroughRoomInIdOrder() {
+        var service = context.getBean(ReservationService.class);
+        var created = new ArrayList<Long>();
+        for (int i = 0; i < 5; i++) {
+            created.add(service.createReservation(new Reservation(
+                    null, 1L, roomId, START.plusDays(i), START.plusDays(i + 1), null, null)).id());
+        }
+
+        var seen = new ArrayList<Long>();
+        var pages = new ArrayList<Integer>();
+        String cursor = "";
+        do {
+            var page = service.searchAllByCursor(new ReservationSearchFilter(roomId, null, 2, null, cursor));
+            page.reservations().forEach(reservation -> seen.add(reservation.id()));
+            pages.add(page.reservations().size());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(created, seen);
+        assertEquals(List.of(2, 2, 1), pages);
+        var exact = service.searchAllByCursor(new ReservationSearchFilter(roomId, null, 5, null, ""));
+        assertEquals(5, exact.reservations().size());
+        assertNull(exact.nextCursor());
+    }
+
+    @Test
+    void rejectsPageSizeOutOfRange() {
+        var service = context.getBean(ReservationService.class);
+
+        assertThrows(IllegalArgumentException.class, () ->
+                service.searchAllByCursor(new ReservationSearchFilter(roomId, null, 0, null, "")));
+        assertThrows(IllegalArgumentException.class, () -> service.searchAllByCursor(new ReservationSearchFilter(
+                roomId, null, ReservationSearchFilter.MAX_PAGE_SIZE + 1, null, "")));
+        assertThrows(IllegalArgumentException.class, () ->
+                service.searchAllByFilter(new ReservationSearchFilter(roomId, null, 0, 0, null)));
+        assertThrows(IllegalArgumentException.class, () ->
+                service.searchAllByFilter(new ReservationSearchFilter(roomId, null, 10, -1, null)));
+    }
+}
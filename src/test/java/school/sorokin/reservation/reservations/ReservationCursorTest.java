@@ -0,0 +1,25 @@
+package school.sorokin.reservation.reservations;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReservationCursorTest {
+
+    @Test
+    void roundTripsLastId() {
+        assertEquals(123_456_789L, ReservationCursor.decode(ReservationCursor.encode(123_456_789L)));
+    }
+
+    @Test
+    void emptyCursorStartsFromBeginning() {
+        assertEquals(0L, ReservationCursor.decode(""));
+    }
+
+    @Test
+    void rejectsForeignCursor() {
+        assertThrows(IllegalArgumentException.class, () -> ReservationCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> ReservationCursor.decode("MTIz"));
+    }
+}
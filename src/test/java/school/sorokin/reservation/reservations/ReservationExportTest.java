@@ -0,0 +1,82 @@
+package school.sorokin.reservation.reservations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReservationExportTest {
+
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+
+    private final ReservationService reservationService = mock(ReservationService.class);
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+            new ReservationController(reservationService, null, objectMapper, null)).build();
+
+    @Test
+    void writesOneJsonObjectPerLineAsReservationsAreRead() throws Exception {
+        var first = new Reservation(1L, 5L, 7L, START, START.plusDays(2), ReservationStatus.PENDING, 0L);
+        var second = new Reservation(2L, 5L, 7L, START.plusDays(3), START.plusDays(4), ReservationStatus.APPROVED, 1L);
+        var started = new CompletableFuture<MvcResult>();
+        var writtenBeforeSecond = new CompletableFuture<String>();
+        doAnswer(invocation -> {
+            Consumer<Reservation> consumer = invocation.getArgument(1);
+            consumer.accept(first);
+            writtenBeforeSecond.complete(started.get(5, TimeUnit.SECONDS).getResponse().getContentAsString());
+            consumer.accept(second);
+            return null;
+        }).when(reservationService).exportByFilter(any(), any());
+
+        var result = mockMvc.perform(get("/reservation/export").param("roomId", "7").param("userId", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.complete(result);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+
+        var lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(first, objectMapper.readValue(lines[0], Reservation.class));
+        assertEquals(second, objectMapper.readValue(lines[1], Reservation.class));
+        assertEquals(lines[0] + "\n", writtenBeforeSecond.get(5, TimeUnit.SECONDS));
+        verify(reservationService).exportByFilter(
+                eq(new ReservationSearchFilter(7L, 5L, null, null, null)), any());
+    }
+
+    @Test
+    void emptyExportIsAnEmptyBody() throws Exception {
+        var result = mockMvc.perform(get("/reservation/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(""));
+        verify(reservationService).exportByFilter(
+                eq(new ReservationSearchFilter(null, null, null, null, null)), any());
+    }
+}
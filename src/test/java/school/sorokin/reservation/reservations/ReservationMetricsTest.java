@@ -0,0 +1,36 @@
+package school.sorokin.reservation.reservations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReservationMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReservationMetrics metrics = new ReservationMetrics(registry);
+
+    @Test
+    void countersAreRegisteredUpFront() {
+        assertEquals(4, registry.find("reservation.availability.checks").counters().size());
+        assertEquals(ReservationMetrics.Approval.values().length,
+                registry.find("reservation.approvals").counters().size());
+        assertEquals(CancelOutcome.values().length, registry.find("reservation.cancellations").counters().size());
+    }
+
+    @Test
+    void incrementsTheCounterOfTheOutcome() {
+        metrics.availabilityChecked(ReservationMetrics.SOURCE_INDEX, false);
+        metrics.approval(ReservationMetrics.Approval.STATUS_CHANGED);
+        metrics.cancellation(CancelOutcome.ALREADY_CANCELED);
+
+        assertEquals(1.0, registry.get("reservation.availability.checks")
+                .tag("source", "index").tag("result", "reserved").counter().count());
+        assertEquals(0.0, registry.get("reservation.availability.checks")
+                .tag("source", "index").tag("result", "available").counter().count());
+        assertEquals(1.0, registry.get("reservation.approvals").tag("outcome", "status_changed").counter().count());
+        assertEquals(1.0, registry.get("reservation.cancellations").tag("outcome", "already_canceled").counter().count());
+        assertThrows(IllegalArgumentException.class, () -> metrics.availabilityChecked("cache", true));
+    }
+}
@@ -0,0 +1,116 @@
+package school.sorokin.reservation.reservations;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import school.sorokin.reservation.PostgresTestDatabase;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationQueryPlanTest {
+
+    private static final String SCHEMA = "query_plan_test";
+    private static final String LISTING = """
+            select re1_0.id,re1_0.client_id,re1_0.room_id,re1_0.start_date,re1_0.end_date,re1_0.status,re1_0.version
+            from reservations re1_0
+            """;
+
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void migrateAndFill() throws SQLException {
+        dataSource = PostgresTestDatabase.migratedSchema(SCHEMA);
+        execute("""
+                insert into reservations (client_id, room_id, start_date, end_date, status)
+                select i % 20000, i % 1000,
+                       date '2030-01-01' + (i % 365),
+                       date '2030-01-01' + (i % 365) + 1 + (i % 7),
+                       (array['PENDING', 'APPROVED', 'CANCELED'])[1 + i % 3]
+                from generate_series(1, 200000) as i
+                """);
+        execute("analyze reservations");
+    }
+
+    @Test
+    void conflictQueryUsesIndex() throws SQLException {
+        assertGenericPlanUses("idx_reservations_room_status_dates", "bigint, date, date, varchar", """
+                select re1_0.id from reservations re1_0
+                where re1_0.room_id=$1
+                and re1_0.start_date<$2
+                and $3<re1_0.end_date
+                and re1_0.status=$4
+                """);
+    }
+
+    @Test
+    void searchByRoomUsesIndex() throws SQLException {
+        assertGenericPlanUses("idx_reservations_room_id", "bigint, int, int", LISTING + """
+                where re1_0.room_id=$1
+                order by re1_0.id
+                offset $2 rows fetch first $3 rows only
+                """);
+    }
+
+    @Test
+    void searchByClientUsesIndex() throws SQLException {
+        assertGenericPlanUses("idx_reservations_client_id", "bigint, int, int", LISTING + """
+                where re1_0.client_id=$1
+                order by re1_0.id
+                offset $2 rows fetch first $3 rows only
+                """);
+    }
+
+    @Test
+    void keysetPageByRoomUsesIndex() throws SQLException {
+        assertGenericPlanUses("idx_reservations_room_id", "bigint, bigint, int", LISTING + """
+                where re1_0.room_id=$1
+                and re1_0.id>$2
+                order by re1_0.id
+                fetch first $3 rows only
+                """);
+    }
+
+    @Test
+    void unfilteredKeysetPageUsesPrimaryKey() throws SQLException {
+        assertGenericPlanUses("reservations_pkey", "bigint, int", LISTING + """
+                where re1_0.id>$1
+                order by re1_0.id
+                fetch first $2 rows only
+                """);
+    }
+
+    /**
+     * Plans the statement as the driver sends it: prepared, with the generic plan Postgres
+     * switches to after a few executions, so parameter values cannot be folded into the plan.
+     */
+    private static void assertGenericPlanUses(String index, String parameterTypes, String query) throws SQLException {
+        int parameters = parameterTypes.split(",").length;
+        var arguments = String.join(", ", Collections.nCopies(parameters, "null"));
+        try (var connection = dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute("set plan_cache_mode = force_generic_plan");
+            statement.execute("prepare listing(" + parameterTypes + ") as " + query);
+            var lines = Stream.<String>builder();
+            try (var rs = statement.executeQuery("explain execute listing(" + arguments + ")")) {
+                while (rs.next()) {
+                    lines.add(rs.getString(1));
+                }
+            }
+            var plan = lines.build().collect(Collectors.joining("\n"));
+            assertFalse(plan.contains("Seq Scan"), plan);
+            assertTrue(Pattern.compile("Index (Only )?Scan (using|on) " + index + " ").matcher(plan).find(), plan);
+        }
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (var connection = dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package school.sorokin.reservation.reservations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+import school.sorokin.reservation.reservations.archive.ReservationArchive;
+import school.sorokin.reservation.reservations.changes.ReservationChangeNotifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReservationUpdateTest {
+
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+
+    private final ReservationRepository repository = mock(ReservationRepository.class);
+    private final ReservationAvailabilityService availabilityService = mock(ReservationAvailabilityService.class);
+    private final ReservationService service = new ReservationService(repository, new ReservationMapper(),
+            availabilityService, null, new ReservationCache(true, 100, Duration.ofMinutes(1)),
+            new ReservationMetrics(new SimpleMeterRegistry()), new ReservationChangeNotifier(false, null),
+                new ReservationArchive(false, Duration.ZERO, 1, null, null, null, null));
+
+    @Test
+    void updateIsSingleConditionalStatement() {
+        when(availabilityService.isReservationAvailable(anyLong(), any(), any())).thenReturn(true);
+        when(repository.updatePending(1L, 4L, 2L, 3L, BASE, BASE.plusDays(2))).thenReturn(1);
+
+        var updated = service.updateReservation(1L, new Reservation(null, 2L, 3L, BASE, BASE.plusDays(2), null, 4L));
+
+        assertEquals(5L, updated.version());
+        assertEquals(ReservationStatus.PENDING, updated.status());
+        verify(repository, never()).findById(anyLong());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void staleVersionIsReportedAsConflict() {
+        when(availabilityService.isReservationAvailable(anyLong(), any(), any())).thenReturn(true);
+        when(repository.updatePending(anyLong(), anyLong(), anyLong(), anyLong(), any(), any())).thenReturn(0);
+        var current = new ReservationEntity(1L, 2L, 3L, BASE, BASE.plusDays(2), ReservationStatus.PENDING);
+        current.setVersion(5L);
+        when(repository.findById(1L)).thenReturn(Optional.of(current));
+
+        assertThrows(OptimisticLockingFailureException.class, () ->
+                service.updateReservation(1L, new Reservation(null, 2L, 3L, BASE, BASE.plusDays(2), null, 4L)));
+    }
+
+    @Test
+    void updateOfApprovedReservationIsRejected() {
+        when(availabilityService.isReservationAvailable(anyLong(), any(), any())).thenReturn(true);
+        var current = new ReservationEntity(1L, 2L, 3L, BASE, BASE.plusDays(2), ReservationStatus.APPROVED);
+        current.setVersion(4L);
+        when(repository.findById(1L)).thenReturn(Optional.of(current));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                service.updateReservation(1L, new Reservation(null, 2L, 3L, BASE, BASE.plusDays(2), null, 4L)));
+    }
+
+    @Test
+    void cancelIsConditionalOnTheVersionThatWasRead() {
+        var current = new ReservationEntity(1L, 2L, 3L, BASE, BASE.plusDays(2), ReservationStatus.PENDING);
+        current.setVersion(4L);
+        when(repository.findById(1L)).thenReturn(Optional.of(current));
+        when(repository.cancelPending(1L, 4L)).thenReturn(1);
+
+        service.cancelReservation(1L);
+
+        verify(availabilityService).markReleased(1L, 3L);
+    }
+
+    @Test
+    void cancelLosingToConcurrentApprovalIsReportedAsConflict() {
+        var current = new ReservationEntity(1L, 2L, 3L, BASE, BASE.plusDays(2), ReservationStatus.PENDING);
+        current.setVersion(4L);
+        when(repository.findById(1L)).thenReturn(Optional.of(current));
+        when(repository.cancelPending(1L, 4L)).thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> service.cancelReservation(1L));
+        verify(availabilityService, never()).markReleased(anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,122 @@
+package school.sorokin.reservation.reservations;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import school.sorokin.reservation.PostgresTestDatabase;
+import school.sorokin.reservation.ReservationSystemApplication;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Approves overlapping reservations concurrently against PostgreSQL, with the conflict check
+ * answered by the database and the exclusion constraint off, so only the room lock keeps
+ * approved reservations apart. ADVISORY runs two application instances on the same rows.
+ */
+class RoomApprovalLockDatabaseTest {
+
+    private static final LocalDate START = LocalDate.now().plusYears(5);
+    private static final int ROOMS = 4;
+    private static final int RESERVATIONS = 300;
+    private static final int THREADS = 16;
+
+    @Test
+    void stripedLockKeepsApprovalsApart() throws Exception {
+        runStress(RoomLockMode.STRIPED, 1);
+    }
+
+    @Test
+    void advisoryLockKeepsApprovalsApartAcrossInstances() throws Exception {
+        runStress(RoomLockMode.ADVISORY, 2);
+    }
+
+    private void runStress(RoomLockMode mode, int instances) throws Exception {
+        var database = PostgresTestDatabase.get();
+        var jdbc = new JdbcTemplate(new DriverManagerDataSource(database.url(), database.username(), database.password()));
+        long firstRoom = ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE - ROOMS);
+        var contexts = new ArrayList<ConfigurableApplicationContext>();
+        try {
+            for (int i = 0; i < instances; i++) {
+                contexts.add(new SpringApplicationBuilder(ReservationSystemApplication.class)
+                        .web(WebApplicationType.NONE)
+                        .run("--spring.datasource.url=" + database.url(),
+                                "--spring.datasource.username=" + database.username(),
+                                "--spring.datasource.password=" + database.password(),
+                                "--spring.flyway.placeholders.gistexclusion=false",
+                                "--reservation.availability.index.enabled=false",
+                                "--reservation.approval.lock-mode=" + mode));
+            }
+            var ids = insertPending(jdbc, firstRoom);
+
+            var approved = new AtomicInteger();
+            var conflicts = new AtomicInteger();
+            var start = new CountDownLatch(1);
+            try (var executor = Executors.newFixedThreadPool(THREADS * instances)) {
+                for (int i = 0; i < ids.size(); i++) {
+                    long id = ids.get(i);
+                    var service = contexts.get(i % instances).getBean(ReservationService.class);
+                    executor.submit(() -> {
+                        start.await();
+                        try {
+                            service.approveReservation(id);
+                            approved.incrementAndGet();
+                        } catch (IllegalArgumentException conflict) {
+                            conflicts.incrementAndGet();
+                        }
+                        return null;
+                    });
+                }
+                start.countDown();
+            }
+
+            assertTrue(approved.get() > 0);
+            assertEquals(RESERVATIONS, approved.get() + conflicts.get());
+            assertEquals(approved.get(), jdbc.queryForObject("""
+                    select count(*) from reservations
+                    where room_id between ? and ?
+                    and status = 'APPROVED'
+                    """, Integer.class, firstRoom, firstRoom + ROOMS - 1));
+            assertEquals(0, jdbc.queryForObject("""
+                    select count(*) from reservations a
+                    join reservations b on b.room_id = a.room_id
+                        and a.id < b.id
+                        and a.start_date < b.end_date
+                        and b.start_date < a.end_date
+                    where a.room_id between ? and ?
+                    and a.status = 'APPROVED'
+                    and b.status = 'APPROVED'
+                    """, Integer.class, firstRoom, firstRoom + ROOMS - 1));
+        } finally {
+            contexts.forEach(ConfigurableApplicationContext::close);
+            jdbc.update("delete from reservations where room_id between ? and ?", firstRoom, firstRoom + ROOMS - 1);
+        }
+    }
+
+    private static List<Long> insertPending(JdbcTemplate jdbc, long firstRoom) {
+        var random = new Random(7);
+        var ids = new ArrayList<Long>(RESERVATIONS);
+        for (int i = 0; i < RESERVATIONS; i++) {
+            var startDate = START.plusDays(random.nextInt(60));
+            ids.add(jdbc.queryForObject("""
+                            insert into reservations (client_id, room_id, start_date, end_date, status)
+                            values (?, ?, ?, ?, 'PENDING')
+                            returning id
+                            """,
+                    Long.class, i, firstRoom + random.nextInt(ROOMS), startDate, startDate.plusDays(1 + random.nextInt(5))));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,89 @@
+package school.sorokin.reservation.reservations.approval;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.transaction.support.TransactionOperations;
+import school.sorokin.reservation.PostgresTestDatabase;
+import school.sorokin.reservation.ReservationSystemApplication;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationRepository;
+import school.sorokin.reservation.reservations.ReservationService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the batch approval's conditional {@code update ... from unnest(ids, versions)} against PostgreSQL.
+ */
+class ApprovalQueueDatabaseTest {
+
+    private static final LocalDate START = LocalDate.now().plusYears(5);
+
+    private static ConfigurableApplicationContext context;
+    private static long roomId;
+
+    @BeforeAll
+    static void start() {
+        var database = PostgresTestDatabase.get();
+        context = new SpringApplicationBuilder(ReservationSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + database.url(),
+                        "--spring.datasource.username=" + database.username(),
+                        "--spring.datasource.password=" + database.password());
+        roomId = ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE);
+    }
+
+    @AfterAll
+    static void stop() {
+        if (context == null) return;
+        context.getBean(JdbcOperations.class).update("delete from reservations where room_id = ?", roomId);
+        context.close();
+    }
+
+    @Test
+    void approvesOnlyRowsStillAtTheVersionThatWasRead() {
+        var service = context.getBean(ReservationService.class);
+        var repository = context.getBean(ReservationRepository.class);
+        var first = service.createReservation(new Reservation(null, 1L, roomId, START, START.plusDays(1), null, null));
+        var second = service.createReservation(new Reservation(
+                null, 1L, roomId, START.plusDays(2), START.plusDays(3), null, null));
+        service.updateReservation(first.id(), new Reservation(
+                null, 1L, roomId, START.plusDays(4), START.plusDays(5), null, first.version()));
+
+        var approved = context.getBean(TransactionOperations.class).execute(status -> repository.approvePending(
+                new Long[]{first.id(), second.id()}, new Long[]{first.version(), second.version()}));
+
+        assertEquals(List.of(second.id()), approved);
+        assertEquals("PENDING", status(first.id()));
+        assertEquals("APPROVED", status(second.id()));
+    }
+
+    @Test
+    void queueApprovesFromThePrimary() {
+        var service = context.getBean(ReservationService.class);
+        var queue = context.getBean(ApprovalQueue.class);
+        var created = service.createReservation(new Reservation(
+                null, 1L, roomId, START.plusDays(10), START.plusDays(11), null, null));
+
+        queue.enqueue(created.id());
+        var outcome = queue.outcome(created.id(), Duration.ofSeconds(10)).join();
+
+        assertEquals(ApprovalState.APPROVED, outcome.state());
+        assertEquals(created.version() + 1, outcome.reservation().version());
+        assertEquals("APPROVED", status(created.id()));
+    }
+
+    private static String status(long id) {
+        return context.getBean(JdbcOperations.class)
+                .queryForObject("select status from reservations where id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,160 @@
+package school.sorokin.reservation.reservations.approval;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import school.sorokin.reservation.reservations.ReservationCache;
+import school.sorokin.reservation.reservations.ReservationEntity;
+import school.sorokin.reservation.reservations.ReservationMetrics;
+import school.sorokin.reservation.reservations.ReservationRepository;
+import school.sorokin.reservation.reservations.ReservationStatus;
+import school.sorokin.reservation.reservations.RoomApprovalLock;
+import school.sorokin.reservation.reservations.RoomLockMode;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+import school.sorokin.reservation.reservations.availability.ReservationInterval;
+import school.sorokin.reservation.reservations.changes.ReservationChangeNotifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ApprovalQueueTest {
+
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+
+    private final ReservationRepository repository = mock(ReservationRepository.class);
+    private final ReservationAvailabilityService availabilityService = mock(ReservationAvailabilityService.class);
+    private final ApprovalQueue queue = new ApprovalQueue(
+            repository,
+            new RoomApprovalLock(RoomLockMode.STRIPED, 4, TransactionOperations.withoutTransaction(), null),
+            new ReservationCache(true, 100, Duration.ofMinutes(1)),
+            availabilityService,
+            new ReservationChangeNotifier(false, null),
+            new ReservationMetrics(new SimpleMeterRegistry()),
+            1_000,
+            1_000,
+            Duration.ofMinutes(1));
+
+    @Test
+    void earliestRequestWinsAndWinnersAreApprovedWithOneUpdate() {
+        var rows = List.of(
+                pending(1L, 7L, 0, 3),
+                pending(2L, 7L, 2, 5),
+                pending(3L, 7L, 5, 6),
+                pending(4L, 7L, 10, 12),
+                pending(5L, 8L, 0, 3),
+                new ReservationEntity(6L, 1L, 8L, BASE, BASE.plusDays(1), ReservationStatus.CANCELED));
+        when(repository.findRoomIdsByIds(any())).thenReturn(List.of(7L, 8L));
+        when(repository.findAllById(any())).thenReturn(rows);
+        when(repository.findIntervalsInRange(anyCollection(), any(), any(), any())).thenReturn(List.of(
+                new ReservationInterval(100L, 7L, BASE.plusDays(11), BASE.plusDays(20))));
+        when(repository.approvePending(new Long[]{1L, 3L, 5L}, new Long[]{0L, 0L, 0L})).thenReturn(List.of(1L, 3L, 5L));
+
+        for (long id = 1; id <= 7; id++) {
+            queue.enqueue(id);
+        }
+        queue.enqueue(1L);
+        queue.drain();
+
+        assertEquals(ApprovalState.APPROVED, state(1L));
+        assertEquals(ApprovalState.REJECTED, state(2L));
+        assertEquals(ApprovalState.APPROVED, state(3L));
+        assertEquals(ApprovalState.REJECTED, state(4L));
+        assertEquals(ApprovalState.APPROVED, state(5L));
+        assertEquals(ApprovalState.REJECTED, state(6L));
+        assertEquals(ApprovalState.REJECTED, state(7L));
+        assertEquals(1L, queue.outcome(1L, Duration.ZERO).join().reservation().version());
+        verify(repository, times(1)).approvePending(any(), any());
+        verify(repository, times(1)).findIntervalsInRange(anyCollection(), any(), any(), any());
+    }
+
+    @Test
+    void reservationCanceledDuringApprovalIsRejected() {
+        when(repository.findRoomIdsByIds(any())).thenReturn(List.of(7L));
+        when(repository.findAllById(any())).thenReturn(List.of(pending(1L, 7L, 0, 3), pending(2L, 7L, 5, 6)));
+        when(repository.findIntervalsInRange(anyCollection(), any(), any(), any())).thenReturn(List.of());
+        when(repository.approvePending(new Long[]{1L, 2L}, new Long[]{0L, 0L})).thenReturn(List.of(2L));
+
+        queue.enqueue(1L);
+        queue.enqueue(2L);
+        queue.drain();
+
+        assertEquals(ApprovalState.REJECTED, state(1L));
+        assertEquals(ApprovalState.APPROVED, state(2L));
+    }
+
+    @Test
+    void reservationEditedAfterItWasReadIsNotApproved() {
+        // a PUT moved reservation 1 to other dates after the batch read it at version 0
+        Map<Long, Long> versions = Map.of(1L, 1L, 2L, 0L);
+        when(repository.findRoomIdsByIds(any())).thenReturn(List.of(7L));
+        when(repository.findAllById(any())).thenReturn(List.of(pending(1L, 7L, 0, 3), pending(2L, 7L, 5, 6)));
+        when(repository.findIntervalsInRange(anyCollection(), any(), any(), any())).thenReturn(List.of());
+        when(repository.approvePending(any(), any())).thenAnswer(invocation -> {
+            Long[] ids = invocation.getArgument(0);
+            Long[] readVersions = invocation.getArgument(1);
+            var approved = new ArrayList<Long>();
+            for (int i = 0; i < ids.length; i++) {
+                if (versions.get(ids[i]).equals(readVersions[i])) approved.add(ids[i]);
+            }
+            return approved;
+        });
+
+        queue.enqueue(1L);
+        queue.enqueue(2L);
+        queue.drain();
+
+        var edited = queue.outcome(1L, Duration.ZERO).join();
+        assertEquals(ApprovalState.REJECTED, edited.state());
+        assertEquals("reservation changed during approval", edited.message());
+        assertEquals(ApprovalState.APPROVED, state(2L));
+        assertEquals(1L, queue.outcome(2L, Duration.ZERO).join().reservation().version());
+        verify(availabilityService, never()).markApproved(eq(1L), any(), any(), any());
+        verify(availabilityService).markApproved(2L, 7L, BASE.plusDays(5), BASE.plusDays(6));
+    }
+
+    @Test
+    void fullQueueRejectsNewIdsButKeepsQueuedOnes() {
+        var small = new ApprovalQueue(
+                repository,
+                new RoomApprovalLock(RoomLockMode.STRIPED, 4, TransactionOperations.withoutTransaction(), null),
+                new ReservationCache(true, 100, Duration.ofMinutes(1)),
+                mock(ReservationAvailabilityService.class),
+                new ReservationChangeNotifier(false, null),
+                new ReservationMetrics(new SimpleMeterRegistry()),
+                1_000,
+                2,
+                Duration.ofMinutes(1));
+        small.enqueue(1L);
+        small.enqueue(2L);
+
+        var full = assertThrows(ApprovalQueueFullException.class, () -> small.enqueue(3L));
+        assertTrue(full.retryAfter().isPositive());
+        assertEquals(ApprovalState.QUEUED, small.enqueue(1L).state());
+    }
+
+    private ApprovalState state(Long id) {
+        return queue.outcome(id, Duration.ZERO).join().state();
+    }
+
+    private static ReservationEntity pending(Long id, Long roomId, int startDay, int endDay) {
+        var entity = new ReservationEntity(id, id, roomId, BASE.plusDays(startDay), BASE.plusDays(endDay),
+                ReservationStatus.PENDING);
+        entity.setVersion(0L);
+        return entity;
+    }
+}
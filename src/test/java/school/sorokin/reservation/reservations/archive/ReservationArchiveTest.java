@@ -0,0 +1,92 @@
+package school.sorokin.reservation.reservations.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import school.sorokin.reservation.PostgresTestDatabase;
+import school.sorokin.reservation.reservations.ReservationStatus;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+import school.sorokin.reservation.reservations.availability.ReservationInterval;
+import school.sorokin.reservation.reservations.changes.ReservationChangeNotifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class ReservationArchiveTest {
+
+    private static final String SCHEMA = "archive_test";
+    private static final LocalDate CUTOFF = LocalDate.of(2030, 1, 1);
+
+    private final ReservationAvailabilityService availabilityService = mock(ReservationAvailabilityService.class);
+    private final ReservationChangeNotifier changeNotifier = mock(ReservationChangeNotifier.class);
+    private JdbcTemplate jdbc;
+    private ReservationArchive archive;
+
+    @BeforeEach
+    void migrate() {
+        var dataSource = PostgresTestDatabase.migratedSchema(SCHEMA);
+        jdbc = new JdbcTemplate(dataSource);
+        archive = new ReservationArchive(true, Duration.ZERO, 2, jdbc,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                availabilityService, changeNotifier);
+    }
+
+    @Test
+    void movesFinishedAndCanceledIntoMonthlyPartitions() {
+        long finished = insert(LocalDate.of(2029, 11, 20), LocalDate.of(2029, 11, 25), ReservationStatus.APPROVED);
+        long finishedPending = insert(LocalDate.of(2029, 12, 30), LocalDate.of(2029, 12, 31), ReservationStatus.PENDING);
+        long canceled = insert(LocalDate.of(2030, 3, 1), LocalDate.of(2030, 3, 4), ReservationStatus.CANCELED);
+        long live = insert(LocalDate.of(2029, 12, 30), LocalDate.of(2030, 1, 2), ReservationStatus.APPROVED);
+
+        assertEquals(3, archive.archive(CUTOFF));
+
+        assertEquals(1, jdbc.queryForObject("select count(*) from reservations", Integer.class));
+        assertEquals(live, jdbc.queryForObject("select id from reservations", Long.class));
+        assertEquals(ReservationStatus.APPROVED, archive.findById(finished).orElseThrow().status());
+        assertEquals(ReservationStatus.PENDING, archive.findById(finishedPending).orElseThrow().status());
+        assertEquals(LocalDate.of(2030, 3, 1), archive.findById(canceled).orElseThrow().startDate());
+        assertFalse(archive.findById(live).isPresent());
+        assertEquals(3, jdbc.queryForObject("""
+                select count(*) from pg_inherits
+                where inhparent = 'reservations_archive'::regclass
+                """, Integer.class));
+
+        assertEquals(0, archive.archive(CUTOFF));
+        verify(availabilityService).markReleased(finished, 1L);
+        verifyNoMoreInteractions(availabilityService);
+        verify(changeNotifier).publishArchived(List.of(new ReservationInterval(
+                finished, 1L, LocalDate.of(2029, 11, 20), LocalDate.of(2029, 11, 25))));
+    }
+
+    @Test
+    void startMonthQueriesPruneToOnePartition() {
+        insert(LocalDate.of(2029, 10, 1), LocalDate.of(2029, 10, 2), ReservationStatus.CANCELED);
+        insert(LocalDate.of(2029, 11, 1), LocalDate.of(2029, 11, 2), ReservationStatus.CANCELED);
+        archive.archive(CUTOFF);
+
+        var plan = String.join("\n", jdbc.queryForList("""
+                explain select * from reservations_archive
+                where start_date >= date '2029-11-01' and start_date < date '2029-12-01'
+                """, String.class));
+        assertTrue(plan.contains("reservations_archive_y2029m11"), plan);
+        assertFalse(plan.contains("reservations_archive_y2029m10"), plan);
+    }
+
+    private long insert(LocalDate startDate, LocalDate endDate, ReservationStatus status) {
+        return jdbc.queryForObject("""
+                insert into reservations (client_id, room_id, start_date, end_date, status)
+                values (1, 1, ?, ?, ?)
+                returning id
+                """, Long.class, startDate, endDate, status.name());
+    }
+}
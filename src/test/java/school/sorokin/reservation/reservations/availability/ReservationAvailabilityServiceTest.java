@@ -0,0 +1,123 @@
+package school.sorokin.reservation.reservations.availability;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import school.sorokin.reservation.reservations.ReservationMetrics;
+import school.sorokin.reservation.reservations.ReservationRepository;
+import school.sorokin.reservation.reservations.ReservationStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReservationAvailabilityServiceTest {
+
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+
+    private final ReservationRepository repository = mock(ReservationRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReservationMetrics metrics = new ReservationMetrics(registry);
+
+    @Test
+    void batchCheckWithoutIndexUsesSingleRangeQuery() {
+        var service = new ReservationAvailabilityService(repository, new RoomIntervalIndex(), false, metrics);
+        when(repository.findIntervalsInRange(Set.of(1L, 2L), BASE, BASE.plusDays(20), ReservationStatus.APPROVED))
+                .thenReturn(List.of(new ReservationInterval(10L, 1L, BASE.plusDays(5), BASE.plusDays(8))));
+
+        var statuses = service.checkAvailability(List.of(
+                new CheckAvailabilityRequest(1L, BASE, BASE.plusDays(5)),
+                new CheckAvailabilityRequest(1L, BASE.plusDays(7), BASE.plusDays(20)),
+                new CheckAvailabilityRequest(2L, BASE.plusDays(5), BASE.plusDays(8))));
+
+        assertEquals(List.of(AvailabilityStatus.AVAILABLE, AvailabilityStatus.RESERVED, AvailabilityStatus.AVAILABLE),
+                statuses);
+        verify(repository, times(1)).findIntervalsInRange(any(), any(), any(), any());
+        verify(repository, never()).findConflictReservationIds(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void batchCheckWithWarmIndexDoesNotQueryDatabase() {
+        var service = new ReservationAvailabilityService(repository, new RoomIntervalIndex(), true, metrics);
+        when(repository.findIntervalsByStatus(ReservationStatus.APPROVED))
+                .thenReturn(List.of(new ReservationInterval(10L, 1L, BASE.plusDays(5), BASE.plusDays(8))));
+        service.warmUpIndex();
+
+        var statuses = service.checkAvailability(List.of(
+                new CheckAvailabilityRequest(1L, BASE.plusDays(6), BASE.plusDays(7)),
+                new CheckAvailabilityRequest(3L, BASE.plusDays(6), BASE.plusDays(7))));
+
+        assertEquals(List.of(AvailabilityStatus.RESERVED, AvailabilityStatus.AVAILABLE), statuses);
+        verify(repository, never()).findIntervalsInRange(any(), any(), any(), any());
+        assertEquals(1.0, registry.counter("reservation.availability.checks",
+                "source", "index", "result", "reserved").count());
+    }
+
+    @Test
+    void calendarWithoutIndexUsesSingleRangeQuery() {
+        var service = new ReservationAvailabilityService(repository, new RoomIntervalIndex(), false, metrics);
+        when(repository.findIntervalsInRange(List.of(1L, 2L), BASE, BASE.plusDays(30), ReservationStatus.APPROVED))
+                .thenReturn(List.of(
+                        new ReservationInterval(10L, 1L, BASE.minusDays(3), BASE.plusDays(2)),
+                        new ReservationInterval(11L, 1L, BASE.plusDays(2), BASE.plusDays(4)),
+                        new ReservationInterval(12L, 1L, BASE.plusDays(28), BASE.plusDays(40))));
+
+        var calendar = service.occupancy(List.of(1L, 2L, 1L), BASE, BASE.plusDays(30));
+
+        assertEquals(2, calendar.rooms().size());
+        assertArrayEquals(new int[]{0, 4, 28, 2}, calendar.rooms().get(0).busy());
+        assertArrayEquals(new int[0], calendar.rooms().get(1).busy());
+        verify(repository, times(1)).findIntervalsInRange(any(), any(), any(), any());
+    }
+
+    @Test
+    void suggestionsWithoutIndexUseSingleRangeQuery() {
+        var service = new ReservationAvailabilityService(repository, new RoomIntervalIndex(), false, metrics);
+        when(repository.findIntervalsInRange(List.of(1L, 2L, 3L), BASE.minusDays(78), BASE.plusDays(104),
+                ReservationStatus.APPROVED))
+                .thenReturn(suggestionIntervals());
+
+        var suggestions = service.suggestAlternatives(1L, BASE.plusDays(12), BASE.plusDays(14), 3, List.of(2L, 3L, 1L, 3L));
+
+        assertSuggestions(suggestions);
+        verify(repository, times(1)).findIntervalsInRange(any(), any(), any(), any());
+        verify(repository, never()).findConflictReservationIds(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void suggestionsWithWarmIndexDoNotQueryDatabase() {
+        var service = new ReservationAvailabilityService(repository, new RoomIntervalIndex(), true, metrics);
+        when(repository.findIntervalsByStatus(ReservationStatus.APPROVED)).thenReturn(suggestionIntervals());
+        service.warmUpIndex();
+
+        var suggestions = service.suggestAlternatives(1L, BASE.plusDays(12), BASE.plusDays(14), 3, List.of(2L, 3L, 1L, 3L));
+
+        assertSuggestions(suggestions);
+        verify(repository, never()).findIntervalsInRange(any(), any(), any(), any());
+    }
+
+    private static List<ReservationInterval> suggestionIntervals() {
+        return List.of(
+                new ReservationInterval(10L, 1L, BASE.plusDays(10), BASE.plusDays(15)),
+                new ReservationInterval(11L, 1L, BASE.plusDays(17), BASE.plusDays(20)),
+                new ReservationInterval(12L, 2L, BASE.plusDays(13), BASE.plusDays(14)));
+    }
+
+    private static void assertSuggestions(AlternativeSuggestions suggestions) {
+        assertEquals(AvailabilityStatus.RESERVED, suggestions.status());
+        assertEquals(List.of(
+                new DateWindow(BASE.plusDays(15), BASE.plusDays(17)),
+                new DateWindow(BASE.plusDays(8), BASE.plusDays(10)),
+                new DateWindow(BASE.plusDays(7), BASE.plusDays(9))), suggestions.windows());
+        assertEquals(List.of(3L), suggestions.freeRoomIds());
+    }
+}
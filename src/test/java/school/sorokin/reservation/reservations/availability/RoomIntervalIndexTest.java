@@ -0,0 +1,126 @@
+package school.sorokin.reservation.reservations.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomIntervalIndexTest {
+
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+
+    @Test
+    void matchesOverlapQueryOnRandomData() {
+        var random = new Random(42);
+        var intervals = new ArrayList<ReservationInterval>();
+        for (long id = 1; id <= 2_000; id++) {
+            var start = BASE.plusDays(random.nextInt(365));
+            intervals.add(new ReservationInterval(
+                    id, (long) random.nextInt(20), start, start.plusDays(1 + random.nextInt(30))));
+        }
+        var index = new RoomIntervalIndex();
+        index.rebuild(() -> intervals);
+
+        for (int i = 0; i < 20_000; i++) {
+            long roomId = random.nextInt(22);
+            var start = BASE.plusDays(random.nextInt(400) - 20);
+            var end = start.plusDays(1 + random.nextInt(40));
+
+            var expected = overlapQuery(intervals, roomId, start, end);
+            assertEquals(!expected.isEmpty(), index.hasConflict(roomId, start, end));
+            assertEquals(expected, index.findConflicts(roomId, start, end).stream().sorted().toList());
+        }
+    }
+
+    @Test
+    void endDateIsExclusive() {
+        var index = new RoomIntervalIndex();
+        index.rebuild(List::of);
+        index.add(1L, 7L, BASE, BASE.plusDays(3));
+
+        assertFalse(index.hasConflict(7L, BASE.plusDays(3), BASE.plusDays(5)));
+        assertFalse(index.hasConflict(7L, BASE.minusDays(2), BASE));
+        assertTrue(index.hasConflict(7L, BASE.plusDays(2), BASE.plusDays(5)));
+        assertTrue(index.hasConflict(7L, BASE.minusDays(1), BASE.plusDays(10)));
+    }
+
+    @Test
+    void addAndRemoveKeepAnswersInSync() {
+        var index = new RoomIntervalIndex();
+        index.rebuild(List::of);
+        index.add(1L, 7L, BASE, BASE.plusDays(10));
+        index.add(2L, 7L, BASE.plusDays(20), BASE.plusDays(25));
+        index.add(1L, 7L, BASE.plusDays(30), BASE.plusDays(31));
+
+        assertFalse(index.hasConflict(7L, BASE, BASE.plusDays(10)));
+        assertEquals(List.of(1L), index.findConflicts(7L, BASE.plusDays(30), BASE.plusDays(40)));
+
+        index.remove(2L, 7L);
+        assertFalse(index.hasConflict(7L, BASE.plusDays(20), BASE.plusDays(25)));
+        index.remove(1L, 7L);
+        assertFalse(index.hasConflict(7L, BASE, BASE.plusDays(100)));
+    }
+
+    @Test
+    void updatesDuringRebuildAreNotLost() {
+        var index = new RoomIntervalIndex();
+        index.rebuild(() -> {
+            index.add(5L, 1L, BASE, BASE.plusDays(2));
+            return List.of(new ReservationInterval(6L, 1L, BASE.plusDays(5), BASE.plusDays(6)));
+        });
+
+        assertTrue(index.hasConflict(1L, BASE, BASE.plusDays(1)));
+        assertTrue(index.hasConflict(1L, BASE.plusDays(5), BASE.plusDays(6)));
+    }
+
+    @Test
+    void busyRunsMatchDayByDayScan() {
+        var random = new Random(11);
+        var intervals = new ArrayList<ReservationInterval>();
+        for (long id = 1; id <= 500; id++) {
+            var start = BASE.plusDays(random.nextInt(365));
+            intervals.add(new ReservationInterval(
+                    id, (long) random.nextInt(10), start, start.plusDays(1 + random.nextInt(10))));
+        }
+        var index = new RoomIntervalIndex();
+        index.rebuild(() -> intervals);
+
+        for (int i = 0; i < 500; i++) {
+            long roomId = random.nextInt(11);
+            var from = BASE.plusDays(random.nextInt(400) - 20);
+            var to = from.plusDays(1 + random.nextInt(120));
+
+            var expected = new ArrayList<Integer>();
+            int runStart = -1;
+            for (int day = 0; day <= (int) (to.toEpochDay() - from.toEpochDay()); day++) {
+                var date = from.plusDays(day);
+                boolean busy = date.isBefore(to) && !overlapQuery(intervals, roomId, date, date.plusDays(1)).isEmpty();
+                if (busy && runStart < 0) runStart = day;
+                if (!busy && runStart >= 0) {
+                    expected.add(runStart);
+                    expected.add(day - runStart);
+                    runStart = -1;
+                }
+            }
+            var actual = index.busyRuns(roomId, from, to);
+            assertEquals(expected, Arrays.stream(actual).boxed().toList());
+        }
+    }
+
+    private static List<Long> overlapQuery(
+            List<ReservationInterval> intervals, long roomId, LocalDate start, LocalDate end) {
+        return intervals.stream()
+                .filter(r -> r.roomId() == roomId)
+                .filter(r -> r.startDate().isBefore(end) && start.isBefore(r.endDate()))
+                .map(ReservationInterval::id)
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,114 @@
+package school.sorokin.reservation.reservations.changes;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcOperations;
+import school.sorokin.reservation.PostgresTestDatabase;
+import school.sorokin.reservation.ReservationSystemApplication;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationService;
+import school.sorokin.reservation.reservations.ReservationStatus;
+import school.sorokin.reservation.reservations.availability.ReservationAvailabilityService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Two application instances on one database: writes on the first must become visible
+ * in the second one's reservation cache and availability index.
+ */
+class ReservationChangeCoherenceTest {
+
+    private static final LocalDate START = LocalDate.now().plusYears(5);
+
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+
+    @BeforeAll
+    static void startNodes() {
+        var database = PostgresTestDatabase.get();
+        first = startNode(database);
+        second = startNode(database);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (first != null) first.close();
+        if (second != null) second.close();
+    }
+
+    @Test
+    void approvalAndCancellationReachOtherNode() {
+        long roomId = ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE);
+        var writer = first.getBean(ReservationService.class);
+        var reader = second.getBean(ReservationService.class);
+        var readerAvailability = second.getBean(ReservationAvailabilityService.class);
+
+        var approvedOne = writer.createReservation(new Reservation(null, 1L, roomId, START, START.plusDays(3), null, null));
+        var canceledOne = writer.createReservation(new Reservation(null, 2L, roomId, START.plusDays(5), START.plusDays(6), null, null));
+        assertEquals(ReservationStatus.PENDING, reader.getReservationById(approvedOne.id()).status());
+        assertEquals(ReservationStatus.PENDING, reader.getReservationById(canceledOne.id()).status());
+        assertTrue(readerAvailability.isReservationAvailable(roomId, START, START.plusDays(1)));
+
+        writer.approveReservation(approvedOne.id());
+        writer.cancelReservation(canceledOne.id());
+
+        await(() -> reader.getReservationById(approvedOne.id()).status() == ReservationStatus.APPROVED);
+        await(() -> reader.getReservationById(canceledOne.id()).status() == ReservationStatus.CANCELED);
+        await(() -> !readerAvailability.isReservationAvailable(roomId, START, START.plusDays(1)));
+    }
+
+    @Test
+    void changesMissedWhileDisconnectedAreResynchronized() {
+        long roomId = ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE);
+        var writer = first.getBean(ReservationService.class);
+        var reader = second.getBean(ReservationService.class);
+        var readerAvailability = second.getBean(ReservationAvailabilityService.class);
+
+        var reservation = writer.createReservation(new Reservation(null, 3L, roomId, START, START.plusDays(2), null, null));
+        assertEquals(ReservationStatus.PENDING, reader.getReservationById(reservation.id()).status());
+
+        first.getBean(JdbcOperations.class).query("""
+                select pg_terminate_backend(pid) from pg_stat_activity
+                where query = 'listen reservation_changes'
+                """, rs -> null);
+        writer.approveReservation(reservation.id());
+
+        await(() -> reader.getReservationById(reservation.id()).status() == ReservationStatus.APPROVED);
+        await(() -> !readerAvailability.isReservationAvailable(roomId, START, START.plusDays(1)));
+    }
+
+    private static ConfigurableApplicationContext startNode(PostgresTestDatabase.Connection database) {
+        return new SpringApplicationBuilder(ReservationSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + database.url(),
+                        "--spring.datasource.username=" + database.username(),
+                        "--spring.datasource.password=" + database.password(),
+                        "--reservation.coherence.enabled=true",
+                        "--reservation.cache.ttl=1h");
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) return;
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+        fail("change did not reach the second node in time");
+    }
+}
@@ -0,0 +1,118 @@
+package school.sorokin.reservation.reservations.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import school.sorokin.reservation.PostgresTestDatabase;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyStoreTest {
+
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void retryReturnsFirstResponseWithoutRunningAgain() {
+        var store = localStore();
+
+        var first = store.execute("create", "key-1", "request", this::createReservation);
+        var retry = store.execute("create", "key-1", "request", this::createReservation);
+
+        assertEquals(first, retry);
+        assertEquals(1, executions.get());
+        assertThrows(IllegalArgumentException.class,
+                () -> store.execute("create", "key-1", "other request", this::createReservation));
+        assertEquals(first.id() + 1, store.execute("approve", "key-1", "request", this::createReservation).id());
+    }
+
+    @Test
+    void failedRequestIsNotRemembered() {
+        var store = localStore();
+
+        assertThrows(IllegalArgumentException.class, () -> store.execute("create", "key-2", "request", () -> {
+            executions.incrementAndGet();
+            throw new IllegalArgumentException("start should to be before end");
+        }));
+        store.execute("create", "key-2", "request", this::createReservation);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicatesRunOnce() throws Exception {
+        var store = localStore();
+        var start = new CountDownLatch(1);
+        var results = new ArrayList<Future<Reservation>>();
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return store.execute("create", "key-3", "request", () -> {
+                        sleep(50);
+                        return createReservation();
+                    });
+                }));
+            }
+            start.countDown();
+            for (var result : results) {
+                assertEquals(1L, result.get().id());
+            }
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void sharedStoreAnswersRetryOnAnotherInstance() {
+        var jdbc = new JdbcTemplate(PostgresTestDatabase.migratedSchema("idempotency_test"));
+        var objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        var firstNode = new IdempotencyStore(100, Duration.ofHours(1), true, Duration.ofMillis(200), Duration.ofSeconds(30), jdbc, objectMapper);
+        var secondNode = new IdempotencyStore(100, Duration.ofHours(1), true, Duration.ofMillis(200), Duration.ofSeconds(30), jdbc, objectMapper);
+        var key = UUID.randomUUID().toString();
+
+        var first = firstNode.execute("create", key, "request", this::createReservation);
+        var retry = secondNode.execute("create", key, "request", this::createReservation);
+
+        assertEquals(first, retry);
+        assertEquals(1, executions.get());
+        assertThrows(IllegalArgumentException.class,
+                () -> secondNode.execute("create", key, "other request", this::createReservation));
+
+        jdbc.update("insert into idempotency_keys (idempotency_key, fingerprint) values ('create:busy', 'request')");
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> secondNode.execute("create", "busy", "request", this::createReservation));
+        jdbc.update("update idempotency_keys set claimed_at = now() - interval '1 minute' where idempotency_key = 'create:busy'");
+        assertEquals(2L, firstNode.execute("create", "busy", "request", this::createReservation).id());
+    }
+
+    private IdempotencyStore localStore() {
+        return new IdempotencyStore(100, Duration.ofMinutes(1), false, Duration.ofSeconds(1), Duration.ofSeconds(1), null, null);
+    }
+
+    private Reservation createReservation() {
+        long id = executions.incrementAndGet();
+        return new Reservation(id, 1L, 2L, START, START.plusDays(2), ReservationStatus.PENDING, 0L);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
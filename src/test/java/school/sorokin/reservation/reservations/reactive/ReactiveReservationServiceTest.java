@@ -0,0 +1,113 @@
+package school.sorokin.reservation.reservations.reactive;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.core.JdbcTemplate;
+import school.sorokin.reservation.PostgresTestDatabase;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationSearchFilter;
+import school.sorokin.reservation.reservations.ReservationStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReactiveReservationServiceTest {
+
+    private static final String SCHEMA = "reactive_test";
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+
+    private JdbcTemplate jdbc;
+    private ReactiveConnectionPool pool;
+    private ReactiveReservationService service;
+
+    @BeforeEach
+    void migrate() {
+        jdbc = new JdbcTemplate(PostgresTestDatabase.migratedSchema(SCHEMA));
+        var database = PostgresTestDatabase.get();
+        pool = ReactiveConfiguration.connectionPool(
+                ReactiveConfiguration.toR2dbcUrl(database.url()) + "?schema=" + SCHEMA,
+                database.username(), database.password(), 2, Duration.ofSeconds(5), 2);
+        var template = new R2dbcEntityTemplate(pool.connectionFactory());
+        var repository = new R2dbcRepositoryFactory(template).getRepository(ReactiveReservationRepository.class,
+                RepositoryFragments.just(new ReactiveReservationSearchRepositoryImpl(template)));
+        service = new ReactiveReservationService(repository);
+    }
+
+    @AfterEach
+    void close() {
+        if (pool != null) pool.destroy();
+    }
+
+    @Test
+    void readsMirrorBlockingQueries() {
+        long first = insert(1L, BASE, BASE.plusDays(3), ReservationStatus.APPROVED);
+        insert(2L, BASE, BASE.plusDays(3), ReservationStatus.PENDING);
+        long third = insert(1L, BASE.plusDays(5), BASE.plusDays(7), ReservationStatus.CANCELED);
+
+        assertEquals(new Reservation(first, 7L, 1L, BASE, BASE.plusDays(3), ReservationStatus.APPROVED, 0L),
+                service.getReservationById(first).block());
+        assertThrows(EntityNotFoundException.class, () -> service.getReservationById(-1L).block());
+
+        assertEquals(List.of(first, third), ids(service.searchAllByFilter(
+                new ReservationSearchFilter(1L, null, null, null, null)).collectList().block()));
+        assertEquals(List.of(third), ids(service.searchAllByFilter(
+                new ReservationSearchFilter(null, 7L, 2, 1, null)).collectList().block()));
+
+        var page = service.searchAllByCursor(new ReservationSearchFilter(null, null, 2, null, "")).block();
+        assertEquals(2, page.reservations().size());
+        var last = service.searchAllByCursor(new ReservationSearchFilter(null, null, 2, null, page.nextCursor())).block();
+        assertEquals(List.of(third), ids(last.reservations()));
+        assertNull(last.nextCursor());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.searchAllByCursor(new ReservationSearchFilter(null, null, 0, null, "")));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.searchAllByFilter(new ReservationSearchFilter(null, null, 0, null, null)));
+
+        assertFalse(service.isReservationAvailable(1L, BASE.plusDays(2), BASE.plusDays(4)).block());
+        assertTrue(service.isReservationAvailable(1L, BASE.plusDays(5), BASE.plusDays(6)).block());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.isReservationAvailable(1L, BASE, BASE).block());
+    }
+
+    @Test
+    void exportStreamsRowsOnDemand() {
+        for (int i = 0; i < 20; i++) {
+            insert(3L, BASE.plusDays(i), BASE.plusDays(i + 1), ReservationStatus.PENDING);
+        }
+        var received = new ArrayList<Reservation>();
+
+        service.exportByFilter(new ReservationSearchFilter(3L, null, null, null, null))
+                .limitRate(3)
+                .take(5)
+                .doOnNext(received::add)
+                .blockLast();
+
+        assertEquals(5, received.size());
+        assertEquals(20, service.exportByFilter(new ReservationSearchFilter(3L, null, null, null, null))
+                .count().block());
+    }
+
+    private long insert(Long roomId, LocalDate start, LocalDate end, ReservationStatus status) {
+        return jdbc.queryForObject("""
+                insert into reservations (client_id, room_id, start_date, end_date, status)
+                values (7, ?, ?, ?, ?) returning id
+                """, Long.class, roomId, start, end, status.name());
+    }
+
+    private static List<Long> ids(List<Reservation> reservations) {
+        return reservations.stream().map(Reservation::id).toList();
+    }
+}
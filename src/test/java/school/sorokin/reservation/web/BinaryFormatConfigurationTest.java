@@ -0,0 +1,54 @@
+package school.sorokin.reservation.web;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import school.sorokin.reservation.reservations.Reservation;
+import school.sorokin.reservation.reservations.ReservationStatus;
+import school.sorokin.reservation.reservations.availability.AvailabilityStatus;
+import school.sorokin.reservation.reservations.availability.CheckAvailabilityResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryFormatConfigurationTest {
+
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+
+    private final ObjectMapper cbor = BinaryFormatConfiguration.compactCborMapper();
+
+    @Test
+    void reservationsAreArraysOfEpochDaysAndOrdinals() throws Exception {
+        var reservations = List.of(
+                new Reservation(1L, 2L, 3L, START, START.plusDays(2), ReservationStatus.APPROVED, 4L),
+                new Reservation(5L, 6L, 7L, START.plusDays(9), START.plusDays(10), ReservationStatus.PENDING, 0L));
+
+        var bytes = cbor.writeValueAsBytes(reservations);
+
+        JsonNode first = cbor.readTree(bytes).get(0);
+        assertTrue(first.isArray());
+        assertEquals(START.toEpochDay(), first.get(3).longValue());
+        assertEquals(ReservationStatus.APPROVED.ordinal(), first.get(5).intValue());
+        assertEquals(reservations, cbor.readValue(bytes, new TypeReference<List<Reservation>>() {
+        }));
+        assertTrue(bytes.length * 3 < Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(reservations).length);
+    }
+
+    @Test
+    void availabilityResponseCarriesOnlyStatus() throws Exception {
+        var bytes = cbor.writeValueAsBytes(
+                new CheckAvailabilityResponse("room not available to reservation", AvailabilityStatus.RESERVED));
+
+        assertEquals(1, cbor.readTree(bytes).size());
+        assertEquals(AvailabilityStatus.RESERVED.ordinal(), cbor.readTree(bytes).get(0).intValue());
+        var read = cbor.readValue(bytes, CheckAvailabilityResponse.class);
+        assertEquals(AvailabilityStatus.RESERVED, read.status());
+        assertNull(read.message());
+    }
+}
@@ -0,0 +1,39 @@
+package school.sorokin.reservation.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import school.sorokin.reservation.reservations.approval.ApprovalQueueFullException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void conflictDoesNotExposeDatabaseMessage() {
+        var overlap = handler.handleConflict(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("ERROR: conflicting key value violates exclusion constraint "
+                        + "\"reservations_approved_no_overlap\" Detail: Key (room_id, daterange(start_date, end_date))")));
+        var other = handler.handleConflict(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("ERROR: null value in column \"client_id\" of relation \"reservations\"")));
+
+        assertEquals(HttpStatus.CONFLICT, overlap.getStatusCode());
+        assertEquals("reservation conflicts with an existing approved reservation", overlap.getBody().detailedMassage());
+        assertEquals("reservation conflicts with the stored data", other.getBody().detailedMassage());
+    }
+
+    @Test
+    void fullApprovalQueueIsServiceUnavailableWithRetryAfter() {
+        var response = handler.handleApprovalQueueFull(
+                new ApprovalQueueFullException("approval queue is full", Duration.ofMillis(1_500)));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}